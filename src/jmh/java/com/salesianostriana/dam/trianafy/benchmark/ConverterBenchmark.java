@@ -0,0 +1,42 @@
+package com.salesianostriana.dam.trianafy.benchmark;
+
+import com.salesianostriana.dam.trianafy.dto.GetPlaylistDto;
+import com.salesianostriana.dam.trianafy.dto.GetSongDto;
+import com.salesianostriana.dam.trianafy.dto.PlaylistDtoConverter;
+import com.salesianostriana.dam.trianafy.dto.SongDtoConverter;
+import com.salesianostriana.dam.trianafy.model.Playlist;
+import com.salesianostriana.dam.trianafy.model.Song;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConverterBenchmark {
+
+	private final SongDtoConverter songConverter = new SongDtoConverter();
+	private final PlaylistDtoConverter playlistConverter = new PlaylistDtoConverter();
+
+	private Song song;
+	private Playlist playlist;
+
+	@Setup
+	public void setUp() {
+		song = Fixtures.song(1, Fixtures.artist(1));
+		playlist = Fixtures.playlist(100);
+	}
+
+	@Benchmark
+	public GetSongDto songToGetSongDto() {
+		return songConverter.songtoGetSongDto(song);
+	}
+
+	@Benchmark
+	public GetPlaylistDto playlistToGetPlaylistDto() {
+		return playlistConverter.playlistToGetPlaylistDto(playlist);
+	}
+}
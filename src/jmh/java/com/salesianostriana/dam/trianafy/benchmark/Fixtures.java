@@ -0,0 +1,44 @@
+package com.salesianostriana.dam.trianafy.benchmark;
+
+import com.salesianostriana.dam.trianafy.model.Artist;
+import com.salesianostriana.dam.trianafy.model.Playlist;
+import com.salesianostriana.dam.trianafy.model.Song;
+
+final class Fixtures {
+
+	private Fixtures() {
+	}
+
+	static Artist artist(long id) {
+		return Artist.builder()
+				.id(id)
+				.name("Artist " + id)
+				.dni(String.format("%08dX", id))
+				.version(0L)
+				.build();
+	}
+
+	static Song song(long id, Artist artist) {
+		return Song.builder()
+				.id(id)
+				.title("Song " + id)
+				.album("Album " + (id / 10))
+				.year(String.valueOf(1950 + id % 70))
+				.artist(artist)
+				.version(0L)
+				.build();
+	}
+
+	static Playlist playlist(int size) {
+		Artist artist = artist(1);
+		Playlist playlist = Playlist.builder()
+				.id(1L)
+				.name("Playlist " + size)
+				.description("Benchmark playlist")
+				.version(0L)
+				.build();
+		for (long i = 1; i <= size; i++)
+			playlist.addSong(song(i, artist));
+		return playlist;
+	}
+}
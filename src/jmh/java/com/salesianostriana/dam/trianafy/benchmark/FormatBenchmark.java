@@ -0,0 +1,80 @@
+package com.salesianostriana.dam.trianafy.benchmark;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import com.salesianostriana.dam.trianafy.config.CatalogProtobufHttpMessageConverter;
+import com.salesianostriana.dam.trianafy.dto.GetSongDto;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+// Encode cost per format, with and without gzip. The encoded size of each
+// combination is printed once per trial, since JMH only reports time.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FormatBenchmark {
+
+	@Param({"json", "smile", "cbor", "protobuf"})
+	public String format;
+
+	@Param({"false", "true"})
+	public boolean gzip;
+
+	@Param({"10", "500"})
+	public int songs;
+
+	private List<GetSongDto> page;
+	private Encoder encoder;
+
+	@Setup
+	public void setUp() throws IOException {
+		page = new ArrayList<>(songs);
+		for (long i = 1; i <= songs; i++)
+			page.add(new GetSongDto(i, "Song " + i, "Artist " + (i % 40), "Album " + (i / 10), String.valueOf(1950 + i % 70), i * 1024, i));
+
+		encoder = switch (format) {
+			case "json" -> mapper(null)::writeValueAsBytes;
+			case "smile" -> mapper(new SmileFactory())::writeValueAsBytes;
+			case "cbor" -> mapper(new CBORFactory())::writeValueAsBytes;
+			case "protobuf" -> new CatalogProtobufHttpMessageConverter()::encode;
+			default -> throw new IllegalArgumentException(format);
+		};
+		System.out.printf("%n# format=%s gzip=%s songs=%d bytes=%d%n", format, gzip, songs, encode().length);
+	}
+
+	@Benchmark
+	public byte[] encode() throws IOException {
+		byte[] body = encoder.encode(page);
+		if (!gzip)
+			return body;
+		ByteArrayOutputStream compressed = new ByteArrayOutputStream(body.length / 4 + 64);
+		try (GZIPOutputStream out = new GZIPOutputStream(compressed)) {
+			out.write(body);
+		}
+		return compressed.toByteArray();
+	}
+
+	private static ObjectMapper mapper(JsonFactory factory) {
+		Jackson2ObjectMapperBuilder builder = Jackson2ObjectMapperBuilder.json().modulesToInstall(new BlackbirdModule());
+		if (factory != null)
+			builder.factory(factory);
+		return builder.build();
+	}
+
+	private interface Encoder {
+		byte[] encode(Object value) throws IOException;
+	}
+}
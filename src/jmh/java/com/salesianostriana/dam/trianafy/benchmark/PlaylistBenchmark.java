@@ -0,0 +1,44 @@
+package com.salesianostriana.dam.trianafy.benchmark;
+
+import com.salesianostriana.dam.trianafy.model.Playlist;
+import com.salesianostriana.dam.trianafy.model.Song;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PlaylistBenchmark {
+
+	@Param({"1000", "10000", "100000"})
+	public int size;
+
+	private Playlist playlist;
+	private Song extra;
+
+	@Setup
+	public void setUp() {
+		playlist = Fixtures.playlist(size);
+		extra = Fixtures.song(size + 1L, Fixtures.artist(2));
+	}
+
+	// Keeps the size stable across invocations; the removal pays for a full scan.
+	@Benchmark
+	public Playlist addThenDeleteLast() {
+		playlist.addSong(extra);
+		playlist.deleteSong(extra);
+		return playlist;
+	}
+
+	@Benchmark
+	public Playlist deleteFirstThenAppend() {
+		Song first = playlist.getEntries().get(0).getSong();
+		playlist.deleteSong(first);
+		playlist.addSong(first);
+		return playlist;
+	}
+}
@@ -0,0 +1,50 @@
+package com.salesianostriana.dam.trianafy.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import com.salesianostriana.dam.trianafy.model.Song;
+import com.salesianostriana.dam.trianafy.views.View;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SerializationBenchmark {
+
+	@Param({"false", "true"})
+	public boolean blackbird;
+
+	private Song song;
+	private ObjectWriter plainWriter;
+	private ObjectWriter baseViewWriter;
+
+	@Setup
+	public void setUp() {
+		Jackson2ObjectMapperBuilder builder = Jackson2ObjectMapperBuilder.json();
+		if (blackbird)
+			builder.modulesToInstall(new BlackbirdModule());
+		ObjectMapper mapper = builder.build();
+
+		song = Fixtures.song(1, Fixtures.artist(1));
+		plainWriter = mapper.writerFor(Song.class);
+		baseViewWriter = mapper.writerWithView(View.Base.class).forType(Song.class);
+	}
+
+	@Benchmark
+	public byte[] songWithoutView() throws JsonProcessingException {
+		return plainWriter.writeValueAsBytes(song);
+	}
+
+	@Benchmark
+	public byte[] songWithBaseView() throws JsonProcessingException {
+		return baseViewWriter.writeValueAsBytes(song);
+	}
+}
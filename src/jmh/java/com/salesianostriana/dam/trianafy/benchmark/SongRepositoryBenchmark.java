@@ -0,0 +1,63 @@
+package com.salesianostriana.dam.trianafy.benchmark;
+
+import com.salesianostriana.dam.trianafy.TrianafyBaseApplication;
+import com.salesianostriana.dam.trianafy.model.Song;
+import com.salesianostriana.dam.trianafy.repos.SongRepository;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Rows are inserted with plain SQL so seeding bypasses the persistence context,
+// the search index and the second-level cache.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class SongRepositoryBenchmark {
+
+	private static final long FIRST_ID = 1_000_000_000L;
+	private static final long ARTISTS = 1_000;
+
+	@Param({"10000", "100000", "1000000"})
+	public int rows;
+
+	private ConfigurableApplicationContext context;
+	private SongRepository repository;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		SpringApplication application = new SpringApplication(TrianafyBaseApplication.class);
+		application.setWebApplicationType(WebApplicationType.NONE);
+		context = application.run(
+				"--spring.datasource.url=jdbc:h2:mem:benchmark-" + rows + ";DB_CLOSE_DELAY=-1",
+				"--spring.jpa.show-sql=false",
+				"--trianafy.hibernate.statistics.enabled=false");
+		repository = context.getBean(SongRepository.class);
+
+		JdbcTemplate jdbc = context.getBean(JdbcTemplate.class);
+		jdbc.update("insert into artist (id, name, dni, version) " +
+				"select x, concat('Artist ', x), concat('BENCH', x), 0 from system_range(?, ?)",
+				FIRST_ID, FIRST_ID + ARTISTS - 1);
+		jdbc.update("insert into song (id, title, album, year_of_song, artist_id, version) " +
+				"select x, concat('Song ', x), concat('Album ', x / 10), cast(1950 + mod(x, 70) as varchar), ? + mod(x, ?), 0 " +
+				"from system_range(?, ?)",
+				FIRST_ID, ARTISTS, FIRST_ID, FIRST_ID + rows - 1);
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		context.close();
+	}
+
+	@Benchmark
+	public List<Song> findAll() {
+		return repository.findAll();
+	}
+}
@@ -0,0 +1,50 @@
+package com.salesianostriana.dam.trianafy.benchmark;
+
+import com.salesianostriana.dam.trianafy.TrianafyBaseApplication;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.TimeUnit;
+
+// Time to first request: start the application and wait for its first response.
+// Every measurement is a fresh JVM, so class loading and JIT are part of the cost;
+// add -jvmArgsAppend -XX:SharedArchiveFile=target/trianafy.jsa to measure AppCDS
+// (the archive must come from the same classpath, see the cds profile).
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@Fork(10)
+public class StartupBenchmark {
+
+	@Param({"default", "fast"})
+	public String profile;
+
+	private ConfigurableApplicationContext context;
+
+	@Benchmark
+	public int timeToFirstRequest() throws IOException, InterruptedException {
+		context = SpringApplication.run(TrianafyBaseApplication.class,
+				"--spring.profiles.active=" + profile,
+				"--server.port=0");
+		int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+		HttpResponse<Void> response = HttpClient.newHttpClient().send(
+				HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/artist/")).build(),
+				HttpResponse.BodyHandlers.discarding());
+		return response.statusCode();
+	}
+
+	@TearDown(Level.Iteration)
+	public void tearDown() {
+		if (context != null)
+			context.close();
+	}
+}
@@ -0,0 +1,32 @@
+package com.salesianostriana.dam.trianafy.loadtest;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+
+import java.time.Duration;
+import java.util.List;
+
+// Stands in for a remote database: every statement waits before it runs.
+// Registered as a bean so it joins the application's own datasource proxy.
+class LatencyInjectingListener implements QueryExecutionListener {
+
+	private final Duration latency;
+
+	LatencyInjectingListener(Duration latency) {
+		this.latency = latency;
+	}
+
+	@Override
+	public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+		try {
+			Thread.sleep(latency.toMillis());
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	@Override
+	public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+	}
+}
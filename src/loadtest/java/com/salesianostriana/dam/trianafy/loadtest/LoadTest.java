@@ -0,0 +1,160 @@
+package com.salesianostriana.dam.trianafy.loadtest;
+
+import com.salesianostriana.dam.trianafy.TrianafyBaseApplication;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+// Open-loop load generator: requests are issued on a fixed schedule whatever
+// the server does, and latency is measured from the intended send time so a
+// stalled server cannot hide its queueing delay (coordinated omission).
+public class LoadTest {
+
+	private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(5);
+
+	private final LoadTestConfig config;
+	private final HttpClient client = HttpClient.newBuilder()
+			.version(HttpClient.Version.HTTP_1_1)
+			.connectTimeout(Duration.ofSeconds(5))
+			.build();
+
+	LoadTest(LoadTestConfig config) {
+		this.config = config;
+	}
+
+	public static void main(String[] args) throws Exception {
+		LoadTestConfig config = LoadTestConfig.fromSystemProperties();
+		SyntheticDataset dataset = new SyntheticDataset(config);
+
+		SpringApplication application = new SpringApplication(TrianafyBaseApplication.class);
+		if (!config.dbLatency().isZero())
+			application.addInitializers(context -> context.getBeanFactory()
+					.registerSingleton("latencyInjectingListener", new LatencyInjectingListener(config.dbLatency())));
+
+		try (ConfigurableApplicationContext context = application.run(
+				"--server.port=0",
+				"--trianafy.seed.demo=false",
+				"--trianafy.virtual-threads.enabled=" + config.virtualThreads(),
+				"--spring.datasource.hikari.maximum-pool-size=" + config.poolSize(),
+				"--spring.datasource.url=jdbc:h2:mem:loadtest;DB_CLOSE_DELAY=-1")) {
+
+			dataset.seed(context.getBean(JdbcTemplate.class));
+			int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+			Workload workload = new Workload(URI.create("http://localhost:" + port), dataset, config.writeRatio());
+
+			new LoadTest(config).run(workload);
+		}
+	}
+
+	void run(Workload workload) throws IOException, InterruptedException {
+		int warmupRate = config.rates().get(0);
+		System.out.printf("Warming up at %d req/s for %ds%n", warmupRate, config.warmup().toSeconds());
+		runStage(workload, warmupRate, config.warmup());
+
+		Path reportDir = config.modeReportDir();
+		Files.createDirectories(reportDir);
+		try (PrintStream summary = new PrintStream(reportDir.resolve("summary.txt").toFile())) {
+			summary.printf("%-8s %-28s %10s %10s %10s %10s %10s %8s %8s%n",
+					"rate", "route", "count", "p50 ms", "p99 ms", "p999 ms", "max ms", "errors", "rps");
+			for (int rate : config.rates()) {
+				StageResult result = runStage(workload, rate, config.stage());
+				result.write(rate, reportDir.resolve("rate-" + rate), summary);
+				summary.flush();
+			}
+		}
+		Files.readAllLines(reportDir.resolve("summary.txt")).forEach(System.out::println);
+	}
+
+	private StageResult runStage(Workload workload, int rate, Duration duration) throws InterruptedException {
+		StageResult result = new StageResult();
+		Semaphore inFlight = new Semaphore(config.concurrencyLimit());
+		long interval = TimeUnit.SECONDS.toNanos(1) / rate;
+		long start = System.nanoTime();
+		long end = start + duration.toNanos();
+
+		for (long intended = start; intended < end; intended += interval) {
+			long wait = intended - System.nanoTime();
+			if (wait > 0)
+				LockSupport.parkNanos(wait);
+
+			Workload.Operation operation = workload.next();
+			if (!inFlight.tryAcquire()) {
+				result.dropped(operation.route());
+				continue;
+			}
+			long sentAt = intended;
+			client.sendAsync(operation.request(), HttpResponse.BodyHandlers.discarding())
+					.whenComplete((response, error) -> {
+						long micros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - sentAt);
+						result.record(operation.route(), micros, error != null || response.statusCode() >= 400);
+						inFlight.release();
+					});
+		}
+
+		inFlight.acquire(config.concurrencyLimit());
+		result.elapsedNanos = System.nanoTime() - start;
+		return result;
+	}
+
+	private static class StageResult {
+
+		private final Map<String, Histogram> histograms = new LinkedHashMap<>();
+		private final Map<String, AtomicLong> errors = new LinkedHashMap<>();
+		private long elapsedNanos;
+
+		StageResult() {
+			for (String route : Workload.routes()) {
+				histograms.put(route, new ConcurrentHistogram(HIGHEST_TRACKABLE_MICROS, 3));
+				errors.put(route, new AtomicLong());
+			}
+		}
+
+		void record(String route, long micros, boolean failed) {
+			histograms.get(route).recordValue(Math.min(micros, HIGHEST_TRACKABLE_MICROS));
+			if (failed)
+				errors.get(route).incrementAndGet();
+		}
+
+		void dropped(String route) {
+			errors.get(route).incrementAndGet();
+		}
+
+		void write(int rate, Path dir, PrintStream summary) throws IOException {
+			Files.createDirectories(dir);
+			double seconds = elapsedNanos / 1e9;
+			for (Map.Entry<String, Histogram> entry : histograms.entrySet()) {
+				Histogram histogram = entry.getValue();
+				String file = entry.getKey().replaceAll("[^A-Za-z0-9]+", "_").replaceAll("_+$", "") + ".hgrm";
+				try (PrintStream out = new PrintStream(dir.resolve(file).toFile())) {
+					histogram.outputPercentileDistribution(out, 1000.0);
+				}
+				summary.printf("%-8d %-28s %10d %10.2f %10.2f %10.2f %10.2f %8d %8.1f%n",
+						rate, entry.getKey(), histogram.getTotalCount(),
+						histogram.getValueAtPercentile(50) / 1000.0,
+						histogram.getValueAtPercentile(99) / 1000.0,
+						histogram.getValueAtPercentile(99.9) / 1000.0,
+						histogram.getMaxValue() / 1000.0,
+						errors.get(entry.getKey()).get(),
+						histogram.getTotalCount() / seconds);
+			}
+		}
+	}
+}
@@ -0,0 +1,46 @@
+package com.salesianostriana.dam.trianafy.loadtest;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+
+record LoadTestConfig(List<Integer> rates,
+					  Duration warmup,
+					  Duration stage,
+					  double writeRatio,
+					  int artists,
+					  int songs,
+					  int playlists,
+					  int playlistSize,
+					  int concurrencyLimit,
+					  boolean virtualThreads,
+					  Duration dbLatency,
+					  int poolSize,
+					  Path reportDir) {
+
+	static LoadTestConfig fromSystemProperties() {
+		return new LoadTestConfig(
+				Arrays.stream(System.getProperty("loadtest.rates", "100,200,400,800").split(","))
+						.map(String::trim)
+						.map(Integer::valueOf)
+						.toList(),
+				Duration.ofSeconds(Long.getLong("loadtest.warmup-seconds", 10)),
+				Duration.ofSeconds(Long.getLong("loadtest.stage-seconds", 30)),
+				Double.parseDouble(System.getProperty("loadtest.write-ratio", "0.1")),
+				Integer.getInteger("loadtest.artists", 1_000),
+				Integer.getInteger("loadtest.songs", 100_000),
+				Integer.getInteger("loadtest.playlists", 1_000),
+				Integer.getInteger("loadtest.playlist-size", 50),
+				Integer.getInteger("loadtest.concurrency-limit", 2_000),
+				Boolean.getBoolean("loadtest.virtual-threads"),
+				Duration.ofMillis(Long.getLong("loadtest.db-latency-ms", 0)),
+				Integer.getInteger("loadtest.pool-size", 10),
+				Path.of(System.getProperty("loadtest.report-dir", "target/loadtest")));
+	}
+
+	// Runs in each mode land in separate folders so they can be compared side by side.
+	Path modeReportDir() {
+		return reportDir.resolve((virtualThreads ? "virtual" : "platform") + "-" + dbLatency.toMillis() + "ms");
+	}
+}
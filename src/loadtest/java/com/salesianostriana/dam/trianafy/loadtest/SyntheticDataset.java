@@ -0,0 +1,65 @@
+package com.salesianostriana.dam.trianafy.loadtest;
+
+import com.salesianostriana.dam.trianafy.model.PlaylistEntry;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+// Seeds the schema with set-based SQL so that large datasets load in seconds.
+// Songs of a playlist are picked with a fixed stride, which lets the workload
+// ask for a song that is known to be in a given playlist without querying.
+class SyntheticDataset {
+
+	private static final long STRIDE = 7_919;
+
+	private final LoadTestConfig config;
+
+	SyntheticDataset(LoadTestConfig config) {
+		this.config = config;
+	}
+
+	void seed(JdbcTemplate jdbc) {
+		jdbc.update("insert into artist (id, name, dni, version) " +
+						"select x, concat('Artist ', x), concat('LOAD', x), 0 from system_range(1, ?)",
+				config.artists());
+		jdbc.update("insert into song (id, title, album, year_of_song, artist_id, version) " +
+						"select x, concat('Song ', x), concat('Album ', x / 10), cast(1950 + mod(x, 70) as varchar), 1 + mod(x, ?), 0 " +
+						"from system_range(1, ?)",
+				config.artists(), config.songs());
+		jdbc.update("insert into playlist (id, name, description, version) " +
+						"select x, concat('Playlist ', x), 'Synthetic playlist', 0 from system_range(1, ?)",
+				config.playlists());
+		jdbc.update("insert into playlist_entry (id, playlist_id, song_id, position) " +
+						"select (p.x - 1) * ? + s.x + 1, p.x, 1 + mod(p.x * ? + s.x, ?), (s.x + 1) * ? " +
+						"from system_range(1, ?) p, system_range(0, ?) s",
+				config.playlistSize(), STRIDE, config.songs(), PlaylistEntry.STEP,
+				config.playlists(), config.playlistSize() - 1);
+
+		// Leave room above the seeded ids for the pooled sequence optimizer.
+		restart(jdbc, "artist_seq", config.artists());
+		restart(jdbc, "song_seq", config.songs());
+		restart(jdbc, "playlist_seq", config.playlists());
+		restart(jdbc, "playlist_entry_seq", (long) config.playlists() * config.playlistSize());
+	}
+
+	private void restart(JdbcTemplate jdbc, String sequence, long seeded) {
+		jdbc.execute("alter sequence " + sequence + " restart with " + (seeded + 100));
+	}
+
+	long randomArtist() {
+		return 1 + ThreadLocalRandom.current().nextInt(config.artists());
+	}
+
+	long randomSong() {
+		return 1 + ThreadLocalRandom.current().nextInt(config.songs());
+	}
+
+	long randomPlaylist() {
+		return 1 + ThreadLocalRandom.current().nextInt(config.playlists());
+	}
+
+	long songInPlaylist(long playlist) {
+		int position = ThreadLocalRandom.current().nextInt(config.playlistSize());
+		return 1 + Math.floorMod(playlist * STRIDE + position, (long) config.songs());
+	}
+}
@@ -0,0 +1,79 @@
+package com.salesianostriana.dam.trianafy.loadtest;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+// Mixed read/write traffic over the routes we track before a deploy. Each
+// operation is reported under its route template, not the concrete URL.
+class Workload {
+
+	record Operation(String route, HttpRequest request) {
+	}
+
+	private static final Duration TIMEOUT = Duration.ofSeconds(30);
+
+	private final URI base;
+	private final SyntheticDataset dataset;
+	private final double writeRatio;
+
+	Workload(URI base, SyntheticDataset dataset, double writeRatio) {
+		this.base = base;
+		this.dataset = dataset;
+		this.writeRatio = writeRatio;
+	}
+
+	static List<String> routes() {
+		return List.of("GET /song/", "GET /artist/", "GET /list", "GET /list/{id}/song/{id2}",
+				"POST /song/", "PUT /artist/{id}");
+	}
+
+	Operation next() {
+		ThreadLocalRandom random = ThreadLocalRandom.current();
+		if (random.nextDouble() < writeRatio)
+			return random.nextBoolean() ? createSong() : renameArtist();
+
+		return switch (random.nextInt(4)) {
+			case 0 -> new Operation("GET /song/", get("/song/?size=50"));
+			case 1 -> new Operation("GET /artist/", get("/artist/"));
+			case 2 -> new Operation("GET /list", get("/list?page=" + random.nextInt(10) + "&size=50"));
+			default -> {
+				long playlist = dataset.randomPlaylist();
+				yield new Operation("GET /list/{id}/song/{id2}",
+						get("/list/" + playlist + "/song/" + dataset.songInPlaylist(playlist)));
+			}
+		};
+	}
+
+	private Operation createSong() {
+		String body = """
+				{"title": "Load %d", "album": "Load", "year": "2022", "artistId": %d}
+				""".formatted(dataset.randomSong(), dataset.randomArtist());
+		return new Operation("POST /song/", json("/song/", "POST", body));
+	}
+
+	private Operation renameArtist() {
+		long artist = dataset.randomArtist();
+		String body = """
+				{"name": "Artist %d renamed"}
+				""".formatted(artist);
+		return new Operation("PUT /artist/{id}", json("/artist/" + artist, "PUT", body));
+	}
+
+	private HttpRequest get(String path) {
+		return HttpRequest.newBuilder(base.resolve(path))
+				.timeout(TIMEOUT)
+				.GET()
+				.build();
+	}
+
+	private HttpRequest json(String path, String method, String body) {
+		return HttpRequest.newBuilder(base.resolve(path))
+				.timeout(TIMEOUT)
+				.header("Content-Type", "application/json")
+				.method(method, HttpRequest.BodyPublishers.ofString(body))
+				.build();
+	}
+}
@@ -7,12 +7,16 @@ import com.salesianostriana.dam.trianafy.service.ArtistService;
 import com.salesianostriana.dam.trianafy.service.PlaylistService;
 import com.salesianostriana.dam.trianafy.service.SongService;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Component;
 
 import javax.annotation.PostConstruct;
 import java.util.List;
 
+@Slf4j
 @Component
+@ConditionalOnProperty(name = "trianafy.seed.demo", havingValue = "true", matchIfMissing = true)
 @RequiredArgsConstructor
 public class TestModel {
 
@@ -25,14 +29,17 @@ public class TestModel {
 
         Artist a1 = Artist.builder()
                 .name("Joaquín Sabina")
+                .dni("12345678A")
                 .build();
 
         Artist a2 = Artist.builder()
                 .name("Dua Lipa")
+                .dni("23456789B")
                 .build();
 
         Artist a3 = Artist.builder()
                 .name("Metallica")
+                .dni("34567890C")
                 .build();
 
         List<Artist> artistList = List.of(a1, a2, a3);
@@ -117,15 +124,7 @@ public class TestModel {
 
         playlistService.edit(p1);
 
-        System.out.println(p1);
-
-
-
-
-
-
-
-
+        log.debug("Demo playlist: {}", p1);
     }
 
 }
@@ -0,0 +1,54 @@
+package com.salesianostriana.dam.trianafy.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.ResolvableType;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.async.AsyncWebRequest;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.time.Duration;
+import java.util.concurrent.Callable;
+
+// spring.mvc.async.request-timeout bounds every async request (DeferredResult
+// handlers pick their own). Handlers that stream the catalogue legitimately run
+// longer than that, so they get trianafy.streaming.timeout instead.
+@Configuration
+public class AsyncTimeoutConfig implements WebMvcConfigurer {
+
+    private final Duration streamingTimeout;
+
+    public AsyncTimeoutConfig(@Value("${trianafy.streaming.timeout}") Duration streamingTimeout) {
+        this.streamingTimeout = streamingTimeout;
+    }
+
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.registerCallableInterceptors(new CallableProcessingInterceptor() {
+            @Override
+            public <T> void beforeConcurrentHandling(NativeWebRequest request, Callable<T> task) {
+                if (request instanceof AsyncWebRequest && isStreaming(request.getAttribute(
+                        HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST))) {
+                    ((AsyncWebRequest) request).setTimeout(streamingTimeout.toMillis());
+                }
+            }
+        });
+    }
+
+    static boolean isStreaming(Object handler) {
+        if (!(handler instanceof HandlerMethod)) {
+            return false;
+        }
+        ResolvableType type = ResolvableType.forMethodReturnType(((HandlerMethod) handler).getMethod());
+        if (type.hasGenerics()) {
+            type = type.getGeneric(0);
+        }
+        return StreamingResponseBody.class.isAssignableFrom(type.toClass());
+    }
+}
@@ -0,0 +1,165 @@
+package com.salesianostriana.dam.trianafy.config;
+
+import com.google.protobuf.ByteString;
+import com.google.protobuf.CodedOutputStream;
+import com.salesianostriana.dam.trianafy.dto.CursorPageDto;
+import com.salesianostriana.dam.trianafy.dto.GetPlaylistDto;
+import com.salesianostriana.dam.trianafy.dto.GetSongDto;
+import com.salesianostriana.dam.trianafy.model.Artist;
+import com.salesianostriana.dam.trianafy.model.Song;
+import org.springframework.core.ResolvableType;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractGenericHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.lang.Nullable;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.util.Collection;
+import java.util.Set;
+
+// Writes the catalogue types in the wire format described by src/main/proto/trianafy.proto,
+// without generated classes: each type maps to a message by hand. Write-only; requests
+// keep using JSON, Smile or CBOR.
+public class CatalogProtobufHttpMessageConverter extends AbstractGenericHttpMessageConverter<Object> {
+
+    public static final MediaType PROTOBUF = new MediaType("application", "x-protobuf");
+
+    private static final Set<Class<?>> MESSAGES = Set.of(Artist.class, Song.class, GetSongDto.class, GetPlaylistDto.class);
+
+    public CatalogProtobufHttpMessageConverter() {
+        super(PROTOBUF);
+    }
+
+    // Containers are accepted here because getSupportedMediaTypes(Class) only sees the raw
+    // class; their element type is checked in the generic canWrite.
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return isMessage(clazz) || isContainer(clazz);
+    }
+
+    @Override
+    public boolean canRead(Type type, @Nullable Class<?> contextClass, @Nullable MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    public boolean canRead(Class<?> clazz, @Nullable MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    public boolean canWrite(@Nullable Type type, Class<?> clazz, @Nullable MediaType mediaType) {
+        if (!canWrite(mediaType))
+            return false;
+        ResolvableType resolved = type != null ? ResolvableType.forType(type) : ResolvableType.forClass(clazz);
+        Class<?> raw = resolved.resolve(clazz);
+        if (isMessage(raw))
+            return true;
+        if (isContainer(raw))
+            return isMessage(resolved.as(raw).getGeneric(0).resolve());
+        return false;
+    }
+
+    @Override
+    public Object read(Type type, @Nullable Class<?> contextClass, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("Protobuf solo se admite en las respuestas", inputMessage);
+    }
+
+    @Override
+    protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("Protobuf solo se admite en las respuestas", inputMessage);
+    }
+
+    @Override
+    protected void writeInternal(Object value, @Nullable Type type, HttpOutputMessage outputMessage) throws IOException {
+        outputMessage.getBody().write(encode(value));
+    }
+
+    public byte[] encode(Object value) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        CodedOutputStream out = CodedOutputStream.newInstance(bytes);
+        if (value instanceof Collection<?> items) {
+            writeItems(out, 1, items);
+        } else if (value instanceof CursorPageDto<?> page) {
+            writeItems(out, 1, page.getContent());
+            out.writeInt32(2, page.getSize());
+            writeString(out, 3, page.getNext());
+            if (page.getNextPage() != null)
+                out.writeInt32(4, page.getNextPage());
+        } else {
+            writeFields(out, value);
+        }
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    private void writeItems(CodedOutputStream out, int field, @Nullable Collection<?> items) throws IOException {
+        if (items == null)
+            return;
+        for (Object item : items)
+            writeMessage(out, field, item);
+    }
+
+    private void writeMessage(CodedOutputStream out, int field, @Nullable Object value) throws IOException {
+        if (value == null)
+            return;
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        CodedOutputStream nested = CodedOutputStream.newInstance(bytes);
+        writeFields(nested, value);
+        nested.flush();
+        out.writeBytes(field, ByteString.copyFrom(bytes.toByteArray()));
+    }
+
+    private void writeFields(CodedOutputStream out, Object value) throws IOException {
+        if (value instanceof Artist artist) {
+            writeLong(out, 1, artist.getId());
+            writeString(out, 2, artist.getName());
+            writeString(out, 3, artist.getDni());
+        } else if (value instanceof Song song) {
+            writeLong(out, 1, song.getId());
+            writeString(out, 2, song.getTitle());
+            writeString(out, 3, song.getAlbum());
+            writeString(out, 4, song.getYear());
+            writeMessage(out, 5, song.getArtist());
+        } else if (value instanceof GetSongDto song) {
+            writeLong(out, 1, song.getId());
+            writeString(out, 2, song.getTitle());
+            writeString(out, 3, song.getArtistName());
+            writeString(out, 4, song.getAlbum());
+            writeString(out, 5, song.getYear());
+            writeLong(out, 6, song.getPosition());
+            writeLong(out, 7, song.getEntryId());
+        } else if (value instanceof GetPlaylistDto playlist) {
+            writeLong(out, 1, playlist.getId());
+            writeString(out, 2, playlist.getName());
+            out.writeInt64(3, playlist.getNumberSongs());
+        } else {
+            throw new IllegalArgumentException("No hay mensaje protobuf para " + value.getClass().getName());
+        }
+    }
+
+    // Absent values are left out, which proto3 readers see as the default.
+    private static void writeLong(CodedOutputStream out, int field, @Nullable Long value) throws IOException {
+        if (value != null)
+            out.writeInt64(field, value);
+    }
+
+    private static void writeString(CodedOutputStream out, int field, @Nullable String value) throws IOException {
+        if (value != null)
+            out.writeString(field, value);
+    }
+
+    private static boolean isContainer(@Nullable Class<?> clazz) {
+        return clazz != null && (Collection.class.isAssignableFrom(clazz)
+                || CursorPageDto.class.isAssignableFrom(clazz));
+    }
+
+    // Hibernate proxies are subclasses, so assignability rather than equality.
+    private static boolean isMessage(@Nullable Class<?> clazz) {
+        return clazz != null && MESSAGES.stream().anyMatch(type -> type.isAssignableFrom(clazz));
+    }
+}
@@ -0,0 +1,107 @@
+package com.salesianostriana.dam.trianafy.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+// With open-in-view every request holds a connection for its whole duration, so
+// letting more requests in than the pool has connections only moves the queue
+// into Hikari, where waiters time out with a 500. Excess requests wait here and
+// get a 503 instead. Streamed responses keep their permit until the container
+// completes them. The /changes long poll is not limited: it holds no connection
+// while it waits, so counting it would let idle pollers lock everyone else out.
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "trianafy.db-concurrency.enabled", havingValue = "true")
+public class ConnectionPoolLimitFilter extends OncePerRequestFilter {
+
+    private static final int HIKARI_DEFAULT_POOL_SIZE = 10;
+
+    private final Semaphore permits;
+    private final long acquireTimeoutNanos;
+
+    public ConnectionPoolLimitFilter(DataSource dataSource,
+                                     @Value("${trianafy.db-concurrency.max-concurrent}") int maxConcurrent,
+                                     @Value("${trianafy.db-concurrency.acquire-timeout}") Duration acquireTimeout) {
+        int limit = maxConcurrent > 0 ? maxConcurrent : poolSize(dataSource);
+        this.permits = new Semaphore(limit, true);
+        this.acquireTimeoutNanos = acquireTimeout.toNanos();
+        log.info("Limiting concurrent requests to {}", limit);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String uri = request.getRequestURI();
+        return uri.startsWith("/actuator") || uri.equals("/changes");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        boolean acquired;
+        try {
+            acquired = permits.tryAcquire(acquireTimeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        }
+        if (!acquired) {
+            response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+            return;
+        }
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            if (request.isAsyncStarted())
+                request.getAsyncContext().addListener(new AsyncListener() {
+                    @Override
+                    public void onComplete(AsyncEvent event) {
+                        permits.release();
+                    }
+
+                    @Override
+                    public void onTimeout(AsyncEvent event) {
+                    }
+
+                    @Override
+                    public void onError(AsyncEvent event) {
+                    }
+
+                    @Override
+                    public void onStartAsync(AsyncEvent event) {
+                    }
+                });
+            else
+                permits.release();
+        }
+    }
+
+    private static int poolSize(DataSource dataSource) {
+        try {
+            if (dataSource.isWrapperFor(HikariDataSource.class))
+                return dataSource.unwrap(HikariDataSource.class).getMaximumPoolSize();
+        } catch (SQLException e) {
+            log.warn("Could not read the connection pool size", e);
+        }
+        return HIKARI_DEFAULT_POOL_SIZE;
+    }
+}
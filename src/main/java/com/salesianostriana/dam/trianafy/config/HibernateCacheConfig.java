@@ -0,0 +1,36 @@
+package com.salesianostriana.dam.trianafy.config;
+
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.net.URI;
+import java.util.UUID;
+
+@Configuration
+public class HibernateCacheConfig {
+
+    // One CacheManager per application context. The provider's default manager is JVM-wide,
+    // so two contexts (tests, a restarted app) would share regions with another database's
+    // rows, and the first context to close would close the cache under the others.
+    @Bean(destroyMethod = "close")
+    public CacheManager hibernateCacheManager() {
+        return Caching.getCachingProvider(CaffeineCachingProvider.class.getName())
+                .getCacheManager(URI.create("trianafy-hibernate-" + UUID.randomUUID()), getClass().getClassLoader());
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer hibernateCacheCustomizer(CacheManager hibernateCacheManager,
+                                                                  @Value("${trianafy.hibernate.statistics.enabled}") boolean statistics) {
+        return properties -> {
+            properties.put(ConfigSettings.CACHE_MANAGER, hibernateCacheManager);
+            properties.put(AvailableSettings.GENERATE_STATISTICS, statistics);
+        };
+    }
+}
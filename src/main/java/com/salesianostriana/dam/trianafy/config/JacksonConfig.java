@@ -0,0 +1,18 @@
+package com.salesianostriana.dam.trianafy.config;
+
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.NativeDetector;
+
+@Configuration
+public class JacksonConfig {
+
+    // Blackbird defines accessor classes at runtime, which a native image cannot do.
+    @Bean
+    public Module blackbirdModule() {
+        return NativeDetector.inNativeImage() ? new SimpleModule("blackbird-disabled") : new BlackbirdModule();
+    }
+}
@@ -0,0 +1,17 @@
+package com.salesianostriana.dam.trianafy.config;
+
+import com.salesianostriana.dam.trianafy.TestModel;
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class StartupConfig {
+
+    // With spring.main.lazy-initialization the seeder would never be created, since
+    // nothing injects it: its work happens in @PostConstruct.
+    @Bean
+    static LazyInitializationExcludeFilter eagerStartupBeans() {
+        return LazyInitializationExcludeFilter.forBeanTypes(TestModel.class);
+    }
+}
@@ -0,0 +1,48 @@
+package com.salesianostriana.dam.trianafy.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ApplicationListener;
+import org.springframework.stereotype.Component;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+
+// Training run for a Class Data Sharing archive: once started, serve one request so
+// the MVC and Jackson classes are loaded too, then exit and let the JVM dump the
+// archive (-XX:ArchiveClassesAtExit).
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "trianafy.startup.training-run", havingValue = "true")
+public class TrainingRunExit implements ApplicationListener<ApplicationReadyEvent> {
+
+    private final String path;
+
+    public TrainingRunExit(@Value("${trianafy.startup.training-path:/artist/}") String path) {
+        this.path = path;
+    }
+
+    @Override
+    public void onApplicationEvent(ApplicationReadyEvent event) {
+        int code = 0;
+        try {
+            if (event.getApplicationContext() instanceof WebServerApplicationContext web) {
+                URI uri = URI.create("http://localhost:" + web.getWebServer().getPort() + path);
+                HttpResponse<Void> response = HttpClient.newHttpClient()
+                        .send(HttpRequest.newBuilder(uri).build(), HttpResponse.BodyHandlers.discarding());
+                log.info("Training request {} answered {}", uri, response.statusCode());
+            }
+        } catch (Exception e) {
+            log.warn("Training request failed", e);
+            code = 1;
+        }
+        int exitCode = SpringApplication.exit(event.getApplicationContext(), () -> 0);
+        System.exit(code != 0 ? code : exitCode);
+    }
+}
@@ -0,0 +1,48 @@
+package com.salesianostriana.dam.trianafy.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+// Runs Tomcat request handling and MVC async work (StreamingResponseBody) on
+// virtual threads. The build still targets Java 17, so the JDK 21 factory is
+// looked up reflectively; on Boot 3.2+ this class can be replaced by
+// spring.threads.virtual.enabled=true.
+@Slf4j
+@Configuration
+@ConditionalOnProperty(name = "trianafy.virtual-threads.enabled", havingValue = "true")
+public class VirtualThreadsConfig implements WebMvcConfigurer {
+
+    private final ExecutorService executor = newVirtualThreadExecutor();
+
+    @Bean
+    public TomcatProtocolHandlerCustomizer<?> virtualThreadProtocolHandlerCustomizer() {
+        return protocolHandler -> protocolHandler.setExecutor(executor);
+    }
+
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.setTaskExecutor(new TaskExecutorAdapter(executor));
+    }
+
+    private static ExecutorService newVirtualThreadExecutor() {
+        try {
+            ExecutorService executor = (ExecutorService) Executors.class
+                    .getMethod("newVirtualThreadPerTaskExecutor")
+                    .invoke(null);
+            log.info("Request handling runs on virtual threads");
+            return executor;
+        } catch (ReflectiveOperationException | UnsupportedOperationException e) {
+            throw new IllegalStateException("trianafy.virtual-threads.enabled requires Java 21 or later, running on "
+                    + Runtime.version(), e);
+        }
+    }
+}
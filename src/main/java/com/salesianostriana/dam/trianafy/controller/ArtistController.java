@@ -1,9 +1,11 @@
 package com.salesianostriana.dam.trianafy.controller;
 
+import com.salesianostriana.dam.trianafy.dto.BulkImportResultDto;
 import com.salesianostriana.dam.trianafy.model.Artist;
-import com.salesianostriana.dam.trianafy.model.Song;
+import com.salesianostriana.dam.trianafy.repos.ArtistRepository;
+import com.salesianostriana.dam.trianafy.repos.EntityVersion;
 import com.salesianostriana.dam.trianafy.service.ArtistService;
-import com.salesianostriana.dam.trianafy.service.SongService;
+import com.salesianostriana.dam.trianafy.service.BulkImportService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.ArraySchema;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -13,10 +15,15 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
 import java.util.Optional;
 
@@ -26,7 +33,8 @@ import java.util.Optional;
 public class ArtistController {
 
     private final ArtistService service;
-    private final SongService songService;
+    private final BulkImportService bulkImportService;
+    private final ArtistRepository repository;
 
     @Operation(summary = "Este método devuelve todos los artistas")
     @ApiResponses(value = {
@@ -66,13 +74,49 @@ public class ArtistController {
                                             """
                             )}
                     )}),
+            @ApiResponse(responseCode = "304",
+                    description = "El artista no ha cambiado desde la versión indicada en If-None-Match",
+                    content = @Content),
             @ApiResponse(responseCode = "404",
                     description = "No se ha encontrado ningún artista por su id",
                     content = @Content),
     })
     @GetMapping("/artist/{id}")
-    public ResponseEntity<Artist> findById(@PathVariable Long id){
-        return ResponseEntity.of(service.findById(id));
+    public ResponseEntity<Artist> findById(@PathVariable Long id, WebRequest request){
+        if (ETags.isConditional(request)) {
+            Optional<EntityVersion> current = repository.findVersionById(id);
+            if (current.isEmpty())
+                return ResponseEntity.notFound().build();
+            if (request.checkNotModified(ETags.of(current.get().getVersion()), ETags.millis(current.get().getLastModified())))
+                return null;
+        }
+        return service.findById(id)
+                .map(artist -> {
+                    request.checkNotModified(ETags.of(artist.getVersion()), ETags.millis(artist.getLastModified()));
+                    return ResponseEntity.ok(artist);
+                })
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @Operation(summary = "Este método devuelve un artista por su dni")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200",
+                    description = "Se han encontrado el artista por su dni",
+                    content = { @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = Artist.class),
+                            examples = {@ExampleObject(
+                                    value = """
+                                            {"id": 1, "name": "Joaquín Sabina", "dni": "12345678A"}
+                                            """
+                            )}
+                    )}),
+            @ApiResponse(responseCode = "404",
+                    description = "No se ha encontrado ningún artista con ese dni",
+                    content = @Content),
+    })
+    @GetMapping("/artist/dni/{dni}")
+    public ResponseEntity<Artist> findByDni(@PathVariable String dni){
+        return ResponseEntity.of(service.findByDni(dni));
     }
 
     @Operation(summary = "Este método devuelve la creación de un artista")
@@ -98,6 +142,24 @@ public class ArtistController {
         return ResponseEntity.status(HttpStatus.CREATED).body(service.add(artist));
     }
 
+    @Operation(summary = "Este método importa artistas en bloque desde un array JSON o NDJSON")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200",
+                    description = "Se han importado los artistas válidos y se devuelven los errores por registro",
+                    content = { @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = BulkImportResultDto.class),
+                            examples = {@ExampleObject(
+                                    value = """
+                                            {"imported": 1, "errors": [{"index": 0, "message": "Ya existe un artista con dni 12345678A"}]}
+                                            """
+                            )}
+                    )}),
+    })
+    @PostMapping(value = "/artist/bulk", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public ResponseEntity<BulkImportResultDto> importArtists(InputStream body) throws IOException {
+        return ResponseEntity.ok(bulkImportService.importArtists(body));
+    }
+
     @Operation(summary = "Este método actualiza la informacion de un artista")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200",
@@ -115,16 +177,22 @@ public class ArtistController {
             @ApiResponse(responseCode = "404",
                     description = "No se ha podido actualizar ningún artista",
                     content = @Content),
+            @ApiResponse(responseCode = "412",
+                    description = "El artista ha cambiado desde la versión indicada en If-Match",
+                    content = @Content),
     })
     @PutMapping("/artist/{id}")
-    public ResponseEntity<Artist> customArtist(@RequestBody Artist artist, @PathVariable Long id){
-        return ResponseEntity.of(service.findById(id)
+    public ResponseEntity<Artist> customArtist(@RequestBody Artist artist, @PathVariable Long id,
+                                               @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch){
+        return service.findById(id)
                 .map(old -> {
+                    if (!ETags.matches(ifMatch, old.getVersion()))
+                        return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).<Artist>build();
                     old.setName(artist.getName());
-                    return Optional.of(service.edit(old));
+                    Artist saved = service.edit(old);
+                    return ResponseEntity.ok().eTag(ETags.of(saved.getVersion())).body(saved);
                 })
-                .orElse(Optional.empty())
-        );
+                .orElse(ResponseEntity.notFound().build());
     }
 
     @Operation(summary = "Este método devuelve el borrado de un artista")
@@ -146,14 +214,8 @@ public class ArtistController {
                     content = @Content),
     })
     @DeleteMapping("/artist/{id}")
-    public ResponseEntity<Artist> deleteArtist(@PathVariable Long id, Artist artist){
-        List<Song> listSong = songService.findAll();
-        for (Song song: listSong) {
-            if (song.getArtist().getId() == id){
-                song.setArtist(null);
-            }
-        }
-        service.delete(artist);
+    public ResponseEntity<Artist> deleteArtist(@PathVariable Long id){
+        service.deleteById(id);
         return ResponseEntity.status(HttpStatus.NO_CONTENT).build();
     }
 }
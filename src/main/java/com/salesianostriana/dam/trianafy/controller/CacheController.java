@@ -0,0 +1,81 @@
+package com.salesianostriana.dam.trianafy.controller;
+
+import com.salesianostriana.dam.trianafy.dto.CacheRegionStatsDto;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.ExampleObject;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import javax.cache.Cache;
+import javax.cache.CacheManager;
+import javax.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+@RestController
+@RequiredArgsConstructor
+@Tag(name = "Cache",description = "Este es el controlador de las estadísticas de la caché de segundo nivel")
+public class CacheController {
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final CacheManager hibernateCacheManager;
+
+    @Operation(summary = "Este método devuelve los aciertos, fallos, desalojos y tamaño de cada región de la caché")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200",
+                    description = "Se han obtenido las estadísticas de la caché",
+                    content = { @Content(mediaType = "application/json",
+                            array = @ArraySchema(schema = @Schema(implementation = CacheRegionStatsDto.class)),
+                            examples = {@ExampleObject(
+                                    value = """
+                                            [
+                                                {"region": "artist", "hitCount": 120, "missCount": 3, "putCount": 3, "evictionCount": 0, "elementCountInMemory": 3}
+                                            ]
+                                            """
+                            )}
+                    )}),
+            @ApiResponse(responseCode = "404",
+                    description = "Las estadísticas de Hibernate están desactivadas (trianafy.hibernate.statistics.enabled)",
+                    content = @Content),
+    })
+    @GetMapping("/cache/stats")
+    public ResponseEntity<List<CacheRegionStatsDto>> findAll(){
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        if (!statistics.isStatisticsEnabled())
+            return ResponseEntity.notFound().build();
+        List<CacheRegionStatsDto> result = new ArrayList<>();
+        for (String region : statistics.getSecondLevelCacheRegionNames()) {
+            CacheRegionStatistics stats = statistics.getCacheRegionStatistics(region);
+            if (stats != null) {
+                result.add(CacheRegionStatsDto.builder()
+                        .region(region)
+                        .hitCount(stats.getHitCount())
+                        .missCount(stats.getMissCount())
+                        .putCount(stats.getPutCount())
+                        .evictionCount(evictionCount(region))
+                        .elementCountInMemory(stats.getElementCountInMemory())
+                        .build());
+            }
+        }
+        return ResponseEntity.ok(result);
+    }
+
+    // Hibernate does not count evictions; Caffeine does, for size and expiry alike.
+    private long evictionCount(String region) {
+        Cache<Object, Object> cache = hibernateCacheManager.getCache(region);
+        if (cache == null)
+            return 0;
+        return cache.unwrap(com.github.benmanes.caffeine.cache.Cache.class).stats().evictionCount();
+    }
+}
@@ -0,0 +1,87 @@
+package com.salesianostriana.dam.trianafy.controller;
+
+import com.salesianostriana.dam.trianafy.dto.ChangeFeedDto;
+import com.salesianostriana.dam.trianafy.service.ChangeEventService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.ExampleObject;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import java.time.Duration;
+import java.util.List;
+
+@RestController
+@RequiredArgsConstructor
+@Tag(name = "Changes",description = "Este es el controlador del registro de cambios del catálogo")
+public class ChangeController {
+
+    private final ChangeEventService service;
+    private final TaskExecutor taskExecutor;
+
+    @Value("${trianafy.changes.default-size}")
+    private int defaultPageSize;
+
+    @Value("${trianafy.changes.max-size}")
+    private int maxPageSize;
+
+    @Value("${trianafy.changes.max-wait}")
+    private Duration maxWait;
+
+    @Operation(summary = "Este método devuelve los cambios posteriores a una secuencia, esperando hasta wait segundos si aún no hay ninguno")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200",
+                    description = "Se han obtenido los cambios; next es la secuencia desde la que continuar",
+                    content = { @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ChangeFeedDto.class),
+                            examples = {@ExampleObject(
+                                    value = """
+                                            {
+                                                "changes": [
+                                                    {"id": 51, "entityType": "SONG", "entityId": 7, "operation": "UPDATED", "occurredAt": "2022-11-20T10:15:30Z"},
+                                                    {"id": 52, "entityType": "PLAYLIST", "entityId": 12, "operation": "DELETED", "occurredAt": "2022-11-20T10:16:02Z"}
+                                                ],
+                                                "next": 52
+                                            }
+                                            """
+                            )}
+                    )}),
+    })
+    @GetMapping("/changes")
+    public DeferredResult<ChangeFeedDto> findChanges(@RequestParam(defaultValue = "0") long since,
+                                                     @RequestParam(required = false) Integer size,
+                                                     @RequestParam(defaultValue = "0") long wait){
+        int pageSize = size == null ? defaultPageSize : Math.max(1, Math.min(size, maxPageSize));
+        long waitMillis = Math.min(Duration.ofSeconds(Math.max(wait, 0)).toMillis(), maxWait.toMillis());
+        DeferredResult<ChangeFeedDto> result = new DeferredResult<>(waitMillis > 0 ? waitMillis : null, new ChangeFeedDto(List.of(), since));
+
+        // Queries run on the task executor, so the long poll never pins a connection
+        // through open-in-view. The listener is registered before querying so a commit
+        // in between still wakes it up.
+        Runnable check = new Runnable() {
+            @Override
+            public void run() {
+                if (result.isSetOrExpired())
+                    return;
+                service.onNextCommit(this);
+                ChangeFeedDto feed = service.findAfter(since, pageSize);
+                if (!feed.getChanges().isEmpty() || waitMillis == 0) {
+                    service.removeListener(this);
+                    result.setResult(feed);
+                }
+            }
+        };
+        result.onCompletion(() -> service.removeListener(check));
+        taskExecutor.execute(check);
+        return result;
+    }
+}
@@ -0,0 +1,35 @@
+package com.salesianostriana.dam.trianafy.controller;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.context.request.WebRequest;
+
+import java.time.Instant;
+import java.util.Arrays;
+
+final class ETags {
+
+    private ETags() {
+    }
+
+    static String of(Long version) {
+        return "\"" + version + "\"";
+    }
+
+    static long millis(Instant lastModified) {
+        return lastModified == null ? -1 : lastModified.toEpochMilli();
+    }
+
+    static boolean isConditional(WebRequest request) {
+        return request.getHeader(HttpHeaders.IF_NONE_MATCH) != null
+                || request.getHeader(HttpHeaders.IF_MODIFIED_SINCE) != null;
+    }
+
+    static boolean matches(String ifMatch, Long version) {
+        if (ifMatch == null)
+            return true;
+        String current = of(version);
+        return Arrays.stream(ifMatch.split(","))
+                .map(String::trim)
+                .anyMatch(tag -> tag.equals("*") || tag.equals(current));
+    }
+}
@@ -1,10 +1,12 @@
 package com.salesianostriana.dam.trianafy.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.salesianostriana.dam.trianafy.dto.*;
 import com.salesianostriana.dam.trianafy.model.Playlist;
 import com.salesianostriana.dam.trianafy.model.Song;
+import com.salesianostriana.dam.trianafy.repos.EntityVersion;
 import com.salesianostriana.dam.trianafy.repos.PlaylistRepository;
-import com.salesianostriana.dam.trianafy.repos.SongRepository;
+import com.salesianostriana.dam.trianafy.service.PlaylistService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.ArraySchema;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -14,12 +16,20 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import javax.swing.text.html.Option;
-import java.util.ArrayList;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.List;
 import java.util.Optional;
 
@@ -29,36 +39,54 @@ import java.util.Optional;
 public class PlaylistController {
 
     private final PlaylistRepository repository;
-    private final SongRepository repository2;
+    private final PlaylistService service;
 
     private final PlaylistDtoConverter dtoConverter;
+    private final ObjectMapper objectMapper;
 
+    @Value("${trianafy.pagination.default-size}")
+    private int defaultPageSize;
 
-    @Operation(summary = "Este método devuelve todas las listas de reproducciones")
+    @Value("${trianafy.pagination.max-size}")
+    private int maxPageSize;
+
+
+    @Operation(summary = "Este método devuelve una página de listas de reproducciones ordenadas por nombre o por número de canciones")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200",
                     description = "Se han encontrado las listas de reproducciones",
                     content = { @Content(mediaType = "application/json",
-                            array = @ArraySchema(schema = @Schema(implementation = Playlist.class)),
+                            schema = @Schema(implementation = CursorPageDto.class),
                             examples = {@ExampleObject(
                                     value = """
-                                            [
+                                            {"content": [
                                                 {"id": 12,"name": "Random","numberSongs": 4}
-                                            ]                                          
+                                            ],
+                                            "size": 1,
+                                            "next": null,
+                                            "nextPage": 1}
                                             """
                             )}
                     )}),
-            @ApiResponse(responseCode = "404",
-                    description = "No se ha encontrado ninguna lista de reproducción",
+            @ApiResponse(responseCode = "400",
+                    description = "El criterio de ordenación no es name ni numberSongs",
                     content = @Content),
     })
     @GetMapping("/list")
-    public ResponseEntity<List<GetPlaylistDto>> findAll(){
-        List<GetPlaylistDto> result = new ArrayList();
-        for (Playlist playList : repository.findAll()){
-           result.add(dtoConverter.playlistToGetPlaylistDto(playList));
+    public ResponseEntity<CursorPageDto<GetPlaylistDto>> findAll(@RequestParam(defaultValue = "0") int page,
+                                                                 @RequestParam(required = false) Integer size,
+                                                                 @RequestParam(defaultValue = "name") String sort,
+                                                                 @RequestParam(defaultValue = "ASC") Sort.Direction direction){
+        if (!PlaylistService.SUMMARY_SORTS.contains(sort)) {
+            return ResponseEntity.badRequest().build();
         }
-        return  ResponseEntity.ok(result);
+        int pageSize = size == null ? defaultPageSize : Math.max(1, Math.min(size, maxPageSize));
+        Slice<GetPlaylistDto> slice = service.findSummaries(Math.max(page, 0), pageSize, sort, direction);
+        return ResponseEntity.ok(CursorPageDto.<GetPlaylistDto>builder()
+                .content(slice.getContent())
+                .size(slice.getNumberOfElements())
+                .nextPage(slice.hasNext() ? slice.getNumber() + 1 : null)
+                .build());
     }
 
     @Operation(summary = "Este método devuelve una lista de reproducción por su id")
@@ -83,13 +111,28 @@ public class PlaylistController {
                                             """
                             )}
                     )}),
+            @ApiResponse(responseCode = "304",
+                    description = "La lista no ha cambiado desde la versión indicada en If-None-Match",
+                    content = @Content),
             @ApiResponse(responseCode = "404",
                     description = "No se ha encontrado ninguna lista de reproducción por su id",
                     content = @Content),
     })
     @GetMapping("/list/{id}")
-    public ResponseEntity<Playlist> findById(@PathVariable Long id){
-        return ResponseEntity.of(repository.findById(id));
+    public ResponseEntity<Playlist> findById(@PathVariable Long id, WebRequest request){
+        if (ETags.isConditional(request)) {
+            Optional<EntityVersion> current = repository.findVersionById(id);
+            if (current.isEmpty())
+                return ResponseEntity.notFound().build();
+            if (request.checkNotModified(ETags.of(current.get().getVersion()), ETags.millis(current.get().getLastModified())))
+                return null;
+        }
+        return repository.findDetailById(id)
+                .map(playlist -> {
+                    request.checkNotModified(ETags.of(playlist.getVersion()), ETags.millis(playlist.getLastModified()));
+                    return ResponseEntity.ok(playlist);
+                })
+                .orElse(ResponseEntity.notFound().build());
     }
 
     @Operation(summary = "Este método devuelve la creación de una lista de reproducción")
@@ -113,7 +156,7 @@ public class PlaylistController {
     @PostMapping("/list")
     public ResponseEntity<CreatePlaylistDto> createPlaylist(@RequestBody CreatePlaylistDto cs){
         Playlist p = dtoConverter.createPlaylistDtoToPlaylist(cs);
-        repository.save(p);
+        service.add(p);
         return ResponseEntity.status(HttpStatus.CREATED).body(cs);
     }
 
@@ -134,13 +177,22 @@ public class PlaylistController {
             @ApiResponse(responseCode = "404",
                     description = "No se ha podido actualizar ninguna lista de reproducción",
                     content = @Content),
+            @ApiResponse(responseCode = "412",
+                    description = "La lista ha cambiado desde la versión indicada en If-Match",
+                    content = @Content),
     })
     @PutMapping("/list/{id}")
-    public ResponseEntity<GetPlaylistDto> customPlaylist(@RequestBody GetPlaylistDto getPlaylistDto, @PathVariable Long id){
-        Optional<Playlist> p = repository.findById(id);
-        p.get().setName(getPlaylistDto.getName());
-        repository.save(p.get());
-        return ResponseEntity.of(Optional.of(getPlaylistDto));
+    public ResponseEntity<GetPlaylistDto> customPlaylist(@RequestBody GetPlaylistDto getPlaylistDto, @PathVariable Long id,
+                                                         @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch){
+        return repository.findById(id)
+                .map(p -> {
+                    if (!ETags.matches(ifMatch, p.getVersion()))
+                        return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).<GetPlaylistDto>build();
+                    p.setName(getPlaylistDto.getName());
+                    Playlist saved = service.edit(p);
+                    return ResponseEntity.ok().eTag(ETags.of(saved.getVersion())).body(getPlaylistDto);
+                })
+                .orElse(ResponseEntity.notFound().build());
     }
 
     @Operation(summary = "Este método devuelve el borrado de una lista de reproducción")
@@ -172,41 +224,110 @@ public class PlaylistController {
     @DeleteMapping("/list/{id}")
     public ResponseEntity<Playlist> deletePlaylist(@PathVariable Long id){
         if (repository.existsById(id))
-            repository.deleteById(id);
+            service.deleteById(id);
         return ResponseEntity.status(HttpStatus.NO_CONTENT).build();
     }
 
-    @Operation(summary = "Este método devuelve todas las canciones que hay en una lista de reproducción")
+    @Operation(summary = "Este método devuelve una página de las canciones de una lista de reproducción, en orden")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200",
                     description = "Se han encontrado las canciones que hay en una lista de reproducción",
                     content = { @Content(mediaType = "application/json",
-                            array = @ArraySchema(schema = @Schema(implementation = Song.class)),
+                            schema = @Schema(implementation = CursorPageDto.class),
                             examples = {@ExampleObject(
                                     value = """
-                                            [                                            
-                                            {"id": 12,"name": "Random","description": "Una lista muy loca",
-                                                "songs": [{"id": 9, "title": "Enter Sandman", "album": "Metallica", "year": "1991",
-                                                    "artist": {"id": 3,"name": "Metallica" }
-                                                    },{"id": 8, "title": "Love Again", "album": "Future Nostalgia", "year": "2021",
-                                                    "artist": {"id": 2, "name": "Dua Lipa" }
-                                                    },{ "id": 9, "title": "Enter Sandman","album": "Metallica", "year": "1991",
-                                                    "artist": {"id": 3,"name": "Metallica"}
-                                                    }, {"id": 11, "title": "Nothing Else Matters","album": "Metallica","year": "1991",
-                                                    "artist": {"id": 3,"name": "Metallica"} }]}
-                                            ]                                          
+                                            {"content": [
+                                                {"id": 9, "title": "Enter Sandman", "artistName": "Metallica", "album": "Metallica", "year": "1991", "position": 1024},
+                                                {"id": 8, "title": "Love Again", "artistName": "Dua Lipa", "album": "Future Nostalgia", "year": "2021", "position": 2048}
+                                            ],
+                                            "size": 2, "next": "MjA0OCwxNw"}
                                             """
                             )}
                     )}),
+            @ApiResponse(responseCode = "400",
+                    description = "El cursor no es válido, o se han indicado a la vez cursor y página",
+                    content = @Content),
             @ApiResponse(responseCode = "404",
-                    description = "No se ha encontrado ninguna canción",
+                    description = "No se ha encontrado la lista de reproducción",
                     content = @Content),
     })
     @GetMapping("/list/{id}/song")
-    public ResponseEntity<Playlist> findSong(@PathVariable Long id){
-        return ResponseEntity.of(repository.findById(id));
+    public ResponseEntity<CursorPageDto<GetSongDto>> findSong(@PathVariable Long id,
+                                                              @RequestParam(required = false) String cursor,
+                                                              @RequestParam(required = false) Integer page,
+                                                              @RequestParam(required = false) Integer size){
+        if (cursor != null && page != null)
+            return ResponseEntity.badRequest().build();
+        int pageSize = size == null ? defaultPageSize : Math.max(1, Math.min(size, maxPageSize));
+
+        CursorPageDto<GetSongDto> result;
+        if (page != null) {
+            Slice<GetSongDto> slice = service.findSongPage(id, Math.max(page, 0), pageSize);
+            result = CursorPageDto.<GetSongDto>builder()
+                    .content(slice.getContent())
+                    .size(slice.getNumberOfElements())
+                    .nextPage(slice.hasNext() ? slice.getNumber() + 1 : null)
+                    .build();
+        } else {
+            long[] after;
+            try {
+                after = cursor == null ? new long[] {Long.MIN_VALUE, Long.MIN_VALUE} : CursorPageDto.decodeCursor(cursor, 2);
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.badRequest().build();
+            }
+            List<GetSongDto> songs = service.findSongsAfter(id, after[0], after[1], pageSize + 1);
+            String next = null;
+            if (songs.size() > pageSize) {
+                songs = songs.subList(0, pageSize);
+                GetSongDto last = songs.get(pageSize - 1);
+                next = CursorPageDto.encodeCursor(last.getPosition(), last.getEntryId());
+            }
+            result = CursorPageDto.<GetSongDto>builder()
+                    .content(songs)
+                    .size(songs.size())
+                    .next(next)
+                    .build();
+        }
+
+        if (result.getContent().isEmpty() && !service.existsById(id))
+            return ResponseEntity.notFound().build();
+        return ResponseEntity.ok(result);
     }
 
+    @Operation(summary = "Este método devuelve todas las canciones de una lista de reproducción en NDJSON, a medida que se leen")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200",
+                    description = "Se envían las canciones de la lista, una por línea",
+                    content = { @Content(mediaType = "application/x-ndjson",
+                            schema = @Schema(implementation = GetSongDto.class),
+                            examples = {@ExampleObject(
+                                    value = """
+                                            {"id": 9, "title": "Enter Sandman", "artistName": "Metallica", "album": "Metallica", "year": "1991", "position": 1024}
+                                            {"id": 8, "title": "Love Again", "artistName": "Dua Lipa", "album": "Future Nostalgia", "year": "2021", "position": 2048}
+                                            """
+                            )}
+                    )}),
+            @ApiResponse(responseCode = "404",
+                    description = "No se ha encontrado la lista de reproducción",
+                    content = @Content),
+    })
+    @GetMapping(value = "/list/{id}/song/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamSongs(@PathVariable Long id){
+        if (!service.existsById(id))
+            return ResponseEntity.notFound().build();
+
+        StreamingResponseBody body = out -> service.streamSongs(id, song -> {
+            try {
+                out.write(objectMapper.writeValueAsBytes(song));
+                out.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
 
     @Operation(summary = "Este método devuelve una canción que hay en una lista de reproducción")
     @ApiResponses(value = {
@@ -228,37 +349,19 @@ public class PlaylistController {
     })
     @GetMapping("/list/{id}/song/{id2}")
     public ResponseEntity<Song> findSongById(@PathVariable Long id, @PathVariable Long id2){
-        Optional<Playlist> p = repository.findById(id);
-        if (p.isPresent()){
-            Playlist playlist = p.get();
-            for (Song song : playlist.getSongs()) {
-                if (song.getId() == id2){
-                    return ResponseEntity.of(Optional.of(song));
-                }
-            }
-        }
-        return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+        return ResponseEntity.of(service.findSong(id, id2));
     }
 
-    @Operation(summary = "Este método devuelve la agregación de una canción a la lista de reproducción")
+    @Operation(summary = "Este método agrega una canción a la lista de reproducción, al final o en la posición indicada")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "201",
                     description = "Se ha agregado una canción a la lista de reproducción",
                     content = { @Content(mediaType = "application/json",
-                            array = @ArraySchema(schema = @Schema(implementation = Song.class)),
+                            schema = @Schema(implementation = Song.class),
                             examples = {@ExampleObject(
                                     value = """
-                                            [
-                                                {"id": 12,"name": "Random","description": "Una lista muy loca",
-                                                "songs": [{"id": 9, "title": "Enter Sandman", "album": "Metallica", "year": "1991",
-                                                    "artist": {"id": 3,"name": "Metallica" }
-                                                    },{"id": 8, "title": "Love Again", "album": "Future Nostalgia", "year": "2021",
-                                                    "artist": {"id": 2, "name": "Dua Lipa" }
-                                                    },{ "id": 9, "title": "Enter Sandman","album": "Metallica", "year": "1991",
-                                                    "artist": {"id": 3,"name": "Metallica"}
-                                                    }, {"id": 11, "title": "Nothing Else Matters","album": "Metallica","year": "1991",
-                                                    "artist": {"id": 3,"name": "Metallica"} }]}                                            
-                                            ]                                          
+                                            {"id": 9, "title": "Enter Sandman", "album": "Metallica", "year": "1991",
+                                                "artist": {"id": 3,"name": "Metallica" }}
                                             """
                             )}
                     )}),
@@ -267,21 +370,105 @@ public class PlaylistController {
                     content = @Content),
     })
     @PostMapping("/list/{id}/song/{id2}")
-    public ResponseEntity<Playlist> addSongPlaylist(@PathVariable Long id, @PathVariable Long id2, @RequestBody CreateSongDto cs){
-        Optional<Playlist> p = repository.findById(id);
-        if (p.isPresent()){
-            Playlist playlist = p.get();
-            Optional<Song> s = repository2.findById(id2);
-            if (s.isPresent()){
-                playlist.addSong(s.get());
-                repository.save(playlist);
-                return ResponseEntity.ok(playlist);
-            }
+    public ResponseEntity<Song> addSongPlaylist(@PathVariable Long id, @PathVariable Long id2,
+                                                @RequestParam(required = false) Integer position){
+        Optional<Song> added = position == null
+                ? service.appendSong(id, id2)
+                : service.insertSong(id, id2, Math.max(position, 0));
+        return added
+                .map(song -> ResponseEntity.status(HttpStatus.CREATED).body(song))
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @Operation(summary = "Este método agrega varias canciones a la lista de reproducción, al final o a partir de la posición indicada")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200",
+                    description = "Se han agregado las canciones existentes y se devuelven los ids no encontrados",
+                    content = { @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = PlaylistChangeDto.class),
+                            examples = {@ExampleObject(
+                                    value = """
+                                            {"changed": 2, "notFound": [99]}
+                                            """
+                            )}
+                    )}),
+            @ApiResponse(responseCode = "400",
+                    description = "No se han indicado los ids de las canciones",
+                    content = @Content),
+            @ApiResponse(responseCode = "404",
+                    description = "No se ha encontrado la lista de reproducción",
+                    content = @Content),
+    })
+    @PostMapping("/list/{id}/song")
+    public ResponseEntity<PlaylistChangeDto> addSongsPlaylist(@PathVariable Long id, @RequestBody PlaylistSongsDto songs){
+        // "songIds": null (or a null id) would otherwise fail deep in the service with a 500.
+        if (songs.getSongIds() == null || songs.getSongIds().contains(null)) {
+            return ResponseEntity.badRequest().build();
         }
-        return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+        Integer position = songs.getPosition() == null ? null : Math.max(songs.getPosition(), 0);
+        return ResponseEntity.of(service.insertSongs(id, songs.getSongIds(), position));
     }
 
-    @Operation(summary = "Este método devuelve el borrado de una canción en una lista de reproducción")
+    @Operation(summary = "Este método mueve varias canciones de la lista de reproducción, en el orden indicado")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200",
+                    description = "Se han movido las canciones y se devuelven las que no están en la lista",
+                    content = { @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = PlaylistChangeDto.class),
+                            examples = {@ExampleObject(
+                                    value = """
+                                            {"changed": 1, "notFound": []}
+                                            """
+                            )}
+                    )}),
+            @ApiResponse(responseCode = "404",
+                    description = "No se ha encontrado la lista de reproducción",
+                    content = @Content),
+    })
+    @PatchMapping("/list/{id}/song")
+    public ResponseEntity<PlaylistChangeDto> moveSongsPlaylist(@PathVariable Long id, @RequestBody List<MoveSongDto> moves){
+        return ResponseEntity.of(service.moveSongs(id, moves));
+    }
+
+    @Operation(summary = "Este método borra varias canciones de la lista de reproducción; cada id borra su primera aparición")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200",
+                    description = "Se han borrado las canciones y se devuelven las que no estaban en la lista",
+                    content = { @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = PlaylistChangeDto.class),
+                            examples = {@ExampleObject(
+                                    value = """
+                                            {"changed": 3, "notFound": [7]}
+                                            """
+                            )}
+                    )}),
+            @ApiResponse(responseCode = "404",
+                    description = "No se ha encontrado la lista de reproducción",
+                    content = @Content),
+    })
+    @DeleteMapping("/list/{id}/song")
+    public ResponseEntity<PlaylistChangeDto> deleteSongsPlaylist(@PathVariable Long id, @RequestParam List<Long> songId){
+        return ResponseEntity.of(service.removeSongs(id, songId));
+    }
+
+    @Operation(summary = "Este método mueve una canción a otra posición de la lista de reproducción")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "204",
+                    description = "Se ha movido la canción",
+                    content = @Content),
+            @ApiResponse(responseCode = "404",
+                    description = "La canción no está en la lista de reproducción",
+                    content = @Content),
+    })
+    @PutMapping("/list/{id}/song/{id2}")
+    public ResponseEntity<Void> moveSongPlaylist(@PathVariable Long id, @PathVariable Long id2,
+                                                 @RequestParam int position){
+        return service.moveSong(id, id2, Math.max(position, 0))
+                ? ResponseEntity.noContent().build()
+                : ResponseEntity.notFound().build();
+    }
+
+    @Operation(summary = "Este método borra la primera aparición de una canción en una lista de reproducción")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "204",
                     description = "Se ha borrado una canción",
@@ -301,17 +488,15 @@ public class PlaylistController {
     })
     @DeleteMapping("/list/{id1}/song/{id2}")
     public ResponseEntity<Song> deleteSongById(@PathVariable Long id1, @PathVariable Long id2){
-        Optional<Playlist> p = repository.findById(id1);
-        if (p.isPresent()){
-            Playlist playlist = p.get();
-            for (Song song : playlist.getSongs()) {
-                if (song.getId() == id2){
-                    playlist.deleteSong(song);
-                    repository.save(playlist);
-                    return ResponseEntity.status(HttpStatus.NO_CONTENT).build();
-                }
-            }
-        }
-        return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+        return service.removeSong(id1, id2)
+                ? ResponseEntity.status(HttpStatus.NO_CONTENT).build()
+                : ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+    }
+
+    // A change that still loses the race for the playlist (lock timeout, stale version) is
+    // the client's to retry, not a server error.
+    @ExceptionHandler(ConcurrencyFailureException.class)
+    public ResponseEntity<Void> conflict() {
+        return ResponseEntity.status(HttpStatus.CONFLICT).build();
     }
 }
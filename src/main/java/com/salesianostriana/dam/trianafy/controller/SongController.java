@@ -1,12 +1,21 @@
 package com.salesianostriana.dam.trianafy.controller;
 
-import com.fasterxml.jackson.annotation.JsonView;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.salesianostriana.dam.trianafy.dto.BulkImportResultDto;
 import com.salesianostriana.dam.trianafy.dto.CreateSongDto;
+import com.salesianostriana.dam.trianafy.dto.CursorPageDto;
+import com.salesianostriana.dam.trianafy.dto.GetSongDto;
+import com.salesianostriana.dam.trianafy.dto.SearchIndexStatusDto;
 import com.salesianostriana.dam.trianafy.dto.SongDtoConverter;
 import com.salesianostriana.dam.trianafy.model.Artist;
 import com.salesianostriana.dam.trianafy.model.Song;
 import com.salesianostriana.dam.trianafy.repos.ArtistRepository;
+import com.salesianostriana.dam.trianafy.repos.EntityVersion;
 import com.salesianostriana.dam.trianafy.repos.SongRepository;
+import com.salesianostriana.dam.trianafy.service.BulkImportService;
+import com.salesianostriana.dam.trianafy.service.SongSearchService;
+import com.salesianostriana.dam.trianafy.service.SongService;
+import com.salesianostriana.dam.trianafy.service.SongViewCache;
 import com.salesianostriana.dam.trianafy.views.View;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.ArraySchema;
@@ -17,10 +26,19 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
 import java.util.List;
 import java.util.Optional;
 
@@ -30,32 +48,158 @@ import java.util.Optional;
 public class SongController {
 
     private final SongRepository repository;
+    private final SongService service;
+    private final BulkImportService bulkImportService;
+    private final SongSearchService searchService;
+    private final SongViewCache viewCache;
     private final SongDtoConverter dtoConverter;
+    private final ObjectMapper objectMapper;
 
     private final ArtistRepository artistRepository;
 
-    @Operation(summary = "Este método devuelve todas las canciones")
+    @Value("${trianafy.pagination.default-size}")
+    private int defaultPageSize;
+
+    @Value("${trianafy.pagination.max-size}")
+    private int maxPageSize;
+
+    @Value("${trianafy.search.max-results}")
+    private int maxSearchResults;
+
+    @Operation(summary = "Este método devuelve una página de canciones a partir de un cursor")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200",
                     description = "Se han encontrado las canciones",
                     content = { @Content(mediaType = "application/json",
-                            array = @ArraySchema(schema = @Schema(implementation = Song.class)),
+                            schema = @Schema(implementation = CursorPageDto.class),
                             examples = {@ExampleObject(
                                     value = """
-                                            [
-                                                {"id": 4, title": "19 días y 500 noches","album": "19 días y 500 noches","year": "1999","artist": {"id": 1,"name": "Joaquín Sabina"}},
+                                            {"content": [
+                                                {"id": 4, "title": "19 días y 500 noches","album": "19 días y 500 noches","year": "1999","artist": {"id": 1,"name": "Joaquín Sabina"}},
                                                 {"id": 5, "title": "Donde habita el olvido","album": "19 días y 500 noches","year": "1999","artist": {"id": 1,"name": "Joaquín Sabina"}}
-                                            ]                                          
+                                            ],
+                                            "size": 2,
+                                            "next": "NQ"}
                                             """
                             )}
                     )}),
-            @ApiResponse(responseCode = "404",
-                    description = "No se ha encontrado ninguna canción",
+            @ApiResponse(responseCode = "400",
+                    description = "El cursor no es válido",
                     content = @Content),
     })
     @GetMapping("/song/")
-    public ResponseEntity<List<Song>> findAll(){
-        return ResponseEntity.ok(repository.findAll());
+    public ResponseEntity<CursorPageDto<Song>> findAll(@RequestParam(required = false) String cursor,
+                                                       @RequestParam(required = false) Integer size){
+        long afterId;
+        try {
+            afterId = cursor == null ? 0L : CursorPageDto.decodeCursor(cursor);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        int pageSize = size == null ? defaultPageSize : Math.max(1, Math.min(size, maxPageSize));
+        List<Song> songs = service.findPage(afterId, pageSize + 1);
+
+        String next = null;
+        if (songs.size() > pageSize) {
+            songs = songs.subList(0, pageSize);
+            next = CursorPageDto.encodeCursor(songs.get(pageSize - 1).getId());
+        }
+
+        return ResponseEntity.ok(CursorPageDto.<Song>builder()
+                .content(songs)
+                .size(songs.size())
+                .next(next)
+                .build());
+    }
+
+    @Operation(summary = "Este método devuelve todas las canciones en streaming, una por línea (NDJSON)")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200",
+                    description = "Se están enviando las canciones",
+                    content = { @Content(mediaType = MediaType.APPLICATION_NDJSON_VALUE,
+                            schema = @Schema(implementation = Song.class))}),
+    })
+    @GetMapping(value = "/song/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAll(){
+        StreamingResponseBody body = out -> service.streamAll(song -> {
+            try {
+                out.write(objectMapper.writeValueAsBytes(song));
+                out.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+
+    @Operation(summary = "Este método busca canciones por título, álbum o artista, admitiendo prefijos y errores de escritura")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200",
+                    description = "Se han encontrado las canciones ordenadas por relevancia",
+                    content = { @Content(mediaType = "application/json",
+                            array = @ArraySchema(schema = @Schema(implementation = GetSongDto.class)),
+                            examples = {@ExampleObject(
+                                    value = """
+                                            [
+                                                {"id": 5, "title": "Donde habita el olvido","artistName": "Joaquín Sabina","album": "19 días y 500 noches","year": "1999"}
+                                            ]
+                                            """
+                            )}
+                    )}),
+            @ApiResponse(responseCode = "400",
+                    description = "No se ha indicado el texto a buscar",
+                    content = @Content),
+    })
+    @GetMapping("/song/search")
+    public ResponseEntity<List<GetSongDto>> search(@RequestParam String q,
+                                                   @RequestParam(defaultValue = "0") int offset,
+                                                   @RequestParam(defaultValue = "20") int limit){
+        if (q.isBlank()) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(searchService.search(q, Math.max(offset, 0), Math.max(1, Math.min(limit, maxSearchResults))));
+    }
+
+    @Operation(summary = "Este método reconstruye en segundo plano el índice de búsqueda de canciones")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "202",
+                    description = "Se ha lanzado la reconstrucción del índice, o ya estaba en curso",
+                    content = { @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = SearchIndexStatusDto.class),
+                            examples = {@ExampleObject(
+                                    value = """
+                                            {"running": true, "startedAt": "2022-11-20T10:15:30Z"}
+                                            """
+                            )}
+                    )}),
+    })
+    @PostMapping("/song/search/reindex")
+    public ResponseEntity<SearchIndexStatusDto> reindex(){
+        searchService.rebuild();
+        return ResponseEntity.status(HttpStatus.ACCEPTED)
+                .location(URI.create("/song/search/reindex"))
+                .body(searchService.status());
+    }
+
+    @Operation(summary = "Este método devuelve el estado de la última reconstrucción del índice de búsqueda")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200",
+                    description = "Estado de la reconstrucción; error indica por qué falló",
+                    content = { @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = SearchIndexStatusDto.class),
+                            examples = {@ExampleObject(
+                                    value = """
+                                            {"running": false, "startedAt": "2022-11-20T10:15:30Z", "finishedAt": "2022-11-20T10:15:42Z"}
+                                            """
+                            )}
+                    )}),
+    })
+    @GetMapping("/song/search/reindex")
+    public ResponseEntity<SearchIndexStatusDto> reindexStatus(){
+        return ResponseEntity.ok(searchService.status());
     }
 
     @Operation(summary = "Este método devuelve una canción por su id")
@@ -72,13 +216,28 @@ public class SongController {
                                             """
                             )}
                     )}),
+            @ApiResponse(responseCode = "304",
+                    description = "La canción no ha cambiado desde la versión indicada en If-None-Match",
+                    content = @Content),
             @ApiResponse(responseCode = "404",
                     description = "No se ha encontrado ninguna canción por su id",
                     content = @Content),
     })
     @GetMapping("/song/{id}")
-    public ResponseEntity<Song> findbyId(@PathVariable Long id){
-        return ResponseEntity.of(repository.findById(id));
+    public ResponseEntity<Song> findbyId(@PathVariable Long id, WebRequest request){
+        if (ETags.isConditional(request)) {
+            Optional<EntityVersion> current = repository.findVersionById(id);
+            if (current.isEmpty())
+                return ResponseEntity.notFound().build();
+            if (request.checkNotModified(ETags.of(current.get().getVersion()), ETags.millis(current.get().getLastModified())))
+                return null;
+        }
+        return service.findWithArtistById(id)
+                .map(song -> {
+                    request.checkNotModified(ETags.of(song.getVersion()), ETags.millis(song.getLastModified()));
+                    return ResponseEntity.ok(song);
+                })
+                .orElse(ResponseEntity.notFound().build());
     }
 
     @Operation(summary = "Este método devuelve la creación de una canción")
@@ -110,11 +269,29 @@ public class SongController {
 
         song.setArtist(artist);
 
-        song = repository.save(song);
+        song = service.add(song);
 
         return ResponseEntity.status(HttpStatus.CREATED).body(song);
     }
 
+    @Operation(summary = "Este método importa canciones en bloque desde un array JSON o NDJSON")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200",
+                    description = "Se han importado las canciones válidas y se devuelven los errores por registro",
+                    content = { @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = BulkImportResultDto.class),
+                            examples = {@ExampleObject(
+                                    value = """
+                                            {"imported": 2, "errors": [{"index": 1, "message": "No existe el artista con id 99"}]}
+                                            """
+                            )}
+                    )}),
+    })
+    @PostMapping(value = "/song/bulk", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public ResponseEntity<BulkImportResultDto> importSongs(InputStream body) throws IOException {
+        return ResponseEntity.ok(bulkImportService.importSongs(body));
+    }
+
     @Operation(summary = "Este método actualiza la informacion de una canción")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200",
@@ -132,9 +309,13 @@ public class SongController {
             @ApiResponse(responseCode = "404",
                     description = "No se ha podido actualizar ninguna canción",
                     content = @Content),
+            @ApiResponse(responseCode = "412",
+                    description = "La canción ha cambiado desde la versión indicada en If-Match",
+                    content = @Content),
     })
     @PutMapping("/song/{id}")
-    public ResponseEntity<Song> customSong(@RequestBody CreateSongDto cs, @PathVariable Long id){
+    public ResponseEntity<Song> customSong(@RequestBody CreateSongDto cs, @PathVariable Long id,
+                                           @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch){
         if (cs.getArtistId() == null){
             return ResponseEntity.badRequest().build();
         }
@@ -142,16 +323,18 @@ public class SongController {
         Song song = dtoConverter.createSongDtoToSong(cs);
         Artist artist = artistRepository.findById(cs.getArtistId()).orElse(null);
 
-        return ResponseEntity.of(repository.findById(id)
+        return repository.findById(id)
                 .map(old -> {
+                    if (!ETags.matches(ifMatch, old.getVersion()))
+                        return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).<Song>build();
                     old.setYear(song.getYear());
                     old.setTitle(song.getTitle());
                     old.setAlbum(song.getAlbum());
                     old.setArtist(artist);
-                    return Optional.of(repository.save(old));
+                    Song saved = service.edit(old);
+                    return ResponseEntity.ok().eTag(ETags.of(saved.getVersion())).body(saved);
                 })
-                .orElse(Optional.empty())
-        );
+                .orElse(ResponseEntity.notFound().build());
     }
 
     @Operation(summary = "Este método devuelve el borrado de una canción")
@@ -175,13 +358,14 @@ public class SongController {
     @DeleteMapping("/song/{id}")
     public ResponseEntity<Song> deleteSong(@PathVariable Long id){
         if(repository.existsById(id))
-            repository.deleteById(id);
+            service.deleteById(id);
         return ResponseEntity.status(HttpStatus.NO_CONTENT).build();
     }
 
-    @GetMapping("/song/jsonview")
-    @JsonView(View.Base.class)
-    List<Song> findSongsByJsonView(){
-        return repository.findAll();
+    @GetMapping(value = "/song/jsonview", produces = MediaType.APPLICATION_JSON_VALUE)
+    ResponseEntity<StreamingResponseBody> findSongsByJsonView(){
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(out -> viewCache.writeAll(View.Base.class, out));
     }
 }
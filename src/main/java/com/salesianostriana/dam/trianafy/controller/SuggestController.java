@@ -0,0 +1,50 @@
+package com.salesianostriana.dam.trianafy.controller;
+
+import com.salesianostriana.dam.trianafy.dto.SuggestionDto;
+import com.salesianostriana.dam.trianafy.service.SuggestService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.ExampleObject;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequiredArgsConstructor
+@Tag(name = "Suggest",description = "Este es el controlador del autocompletado de canciones y artistas")
+public class SuggestController {
+
+    private static final int MAX_LIMIT = 50;
+
+    private final SuggestService service;
+
+    @Operation(summary = "Este método devuelve las canciones y artistas cuyo nombre empieza por el texto indicado")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200",
+                    description = "Se han encontrado las sugerencias",
+                    content = { @Content(mediaType = "application/json",
+                            array = @ArraySchema(schema = @Schema(implementation = SuggestionDto.class)),
+                            examples = {@ExampleObject(
+                                    value = """
+                                            [
+                                                {"type": "artist", "id": 1, "text": "Joaquín Sabina"}
+                                            ]
+                                            """
+                            )}
+                    )}),
+    })
+    @GetMapping("/suggest")
+    public ResponseEntity<List<SuggestionDto>> suggest(@RequestParam String q,
+                                                       @RequestParam(defaultValue = "10") int limit){
+        return ResponseEntity.ok(service.suggest(q, Math.max(1, Math.min(limit, MAX_LIMIT))));
+    }
+}
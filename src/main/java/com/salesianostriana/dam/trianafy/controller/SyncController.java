@@ -0,0 +1,61 @@
+package com.salesianostriana.dam.trianafy.controller;
+
+import com.salesianostriana.dam.trianafy.dto.SyncDto;
+import com.salesianostriana.dam.trianafy.service.SyncService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.ExampleObject;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequiredArgsConstructor
+@Tag(name = "Sync",description = "Este es el controlador de la sincronización incremental para clientes sin conexión")
+public class SyncController {
+
+    private final SyncService service;
+
+    @Value("${trianafy.changes.default-size}")
+    private int defaultPageSize;
+
+    @Value("${trianafy.changes.max-size}")
+    private int maxPageSize;
+
+    @Operation(summary = "Este método devuelve los artistas, canciones y listas modificados y los borrados desde la marca del cliente. " +
+            "Sin marca devuelve solo la marca actual, que el cliente guarda antes de descargar el catálogo completo")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200",
+                    description = "Se han obtenido los cambios; next es la marca para la siguiente llamada",
+                    content = { @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = SyncDto.class),
+                            examples = {@ExampleObject(
+                                    value = """
+                                            {
+                                                "artists": [],
+                                                "songs": [{"id": 7, "title": "Enter Sandman", "album": "Metallica", "year": "1991", "artistId": 3, "lastModified": "2022-11-20T10:15:30Z"}],
+                                                "playlists": [{"id": 12, "name": "Random", "description": "Una lista muy loca", "songIds": [9, 8, 7], "lastModified": "2022-11-20T10:15:31Z"}],
+                                                "deleted": [{"type": "SONG", "id": 11, "deletedAt": "2022-11-20T10:16:02Z"}],
+                                                "next": 54,
+                                                "hasMore": false
+                                            }
+                                            """
+                            )}
+                    )}),
+    })
+    @GetMapping("/sync")
+    public ResponseEntity<SyncDto> sync(@RequestParam(required = false) Long since,
+                                        @RequestParam(required = false) Integer size){
+        if (since == null)
+            return ResponseEntity.ok(SyncDto.builder().next(service.watermark()).build());
+        int pageSize = size == null ? defaultPageSize : Math.max(1, Math.min(size, maxPageSize));
+        return ResponseEntity.ok(service.changesSince(since, pageSize));
+    }
+}
@@ -0,0 +1,13 @@
+package com.salesianostriana.dam.trianafy.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor @NoArgsConstructor
+public class BulkImportErrorDto {
+
+    private long index;
+    private String message;
+}
@@ -0,0 +1,20 @@
+package com.salesianostriana.dam.trianafy.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@AllArgsConstructor @NoArgsConstructor
+public class BulkImportResultDto {
+
+    private long imported;
+    private List<BulkImportErrorDto> errors = new ArrayList<>();
+
+    public void addError(long index, String message) {
+        errors.add(new BulkImportErrorDto(index, message));
+    }
+}
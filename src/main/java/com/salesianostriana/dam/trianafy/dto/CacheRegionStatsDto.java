@@ -0,0 +1,19 @@
+package com.salesianostriana.dam.trianafy.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor @NoArgsConstructor
+@Builder
+public class CacheRegionStatsDto {
+
+    private String region;
+    private long hitCount;
+    private long missCount;
+    private long putCount;
+    private long evictionCount;
+    private long elementCountInMemory;
+}
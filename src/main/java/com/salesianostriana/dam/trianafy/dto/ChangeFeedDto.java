@@ -0,0 +1,18 @@
+package com.salesianostriana.dam.trianafy.dto;
+
+import com.salesianostriana.dam.trianafy.model.ChangeEvent;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor @NoArgsConstructor
+@Builder
+public class ChangeFeedDto {
+
+    private List<ChangeEvent> changes;
+    private long next;
+}
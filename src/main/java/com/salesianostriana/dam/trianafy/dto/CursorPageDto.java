@@ -0,0 +1,49 @@
+package com.salesianostriana.dam.trianafy.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.stream.Collectors;
+
+@Data
+@AllArgsConstructor @NoArgsConstructor
+@Builder
+public class CursorPageDto<T> {
+
+    private List<T> content;
+    private int size;
+    private String next;
+
+    // Only set when the page was requested by number; next is the keyset cursor.
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Integer nextPage;
+
+    public static String encodeCursor(long... keys) {
+        String value = Arrays.stream(keys).mapToObj(Long::toString).collect(Collectors.joining(","));
+        return Base64.getUrlEncoder()
+                .withoutPadding()
+                .encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static long decodeCursor(String cursor) {
+        return decodeCursor(cursor, 1)[0];
+    }
+
+    public static long[] decodeCursor(String cursor, int keys) {
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split(",", -1);
+            if (parts.length != keys)
+                throw new IllegalArgumentException("Cursor no válido: " + cursor);
+            return Arrays.stream(parts).mapToLong(Long::parseLong).toArray();
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Cursor no válido: " + cursor, e);
+        }
+    }
+}
@@ -12,6 +12,6 @@ public class GetPlaylistDto {
 
     private Long id;
     private String name;
-    private int numberSongs;
+    private long numberSongs;
 
 }
@@ -1,5 +1,6 @@
 package com.salesianostriana.dam.trianafy.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -15,4 +16,12 @@ public class GetSongDto {
     private String artistName;
     private String album;
     private String year;
+
+    // Only set when the song is listed as part of a playlist.
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Long position;
+
+    // Breaks ties between equal positions; reactive clients page with (position, entryId).
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Long entryId;
 }
@@ -0,0 +1,13 @@
+package com.salesianostriana.dam.trianafy.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@AllArgsConstructor @NoArgsConstructor
+@Data
+public class MoveSongDto {
+
+    private Long songId;
+    private int position;
+}
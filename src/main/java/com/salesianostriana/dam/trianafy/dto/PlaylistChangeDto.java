@@ -0,0 +1,16 @@
+package com.salesianostriana.dam.trianafy.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@AllArgsConstructor @NoArgsConstructor
+public class PlaylistChangeDto {
+
+    private long changed;
+    private List<Long> notFound = new ArrayList<>();
+}
@@ -18,7 +18,7 @@ public class PlaylistDtoConverter {
                 .builder()
                 .id(p.getId())
                 .name(p.getName())
-                .numberSongs(p.getSongs().size())
+                .numberSongs(p.getEntries().size())
                 .build();
     }
 }
@@ -0,0 +1,19 @@
+package com.salesianostriana.dam.trianafy.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.validation.constraints.NotNull;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@AllArgsConstructor @NoArgsConstructor
+@Data
+public class PlaylistSongsDto {
+
+    @NotNull
+    private List<@NotNull Long> songIds = new ArrayList<>();
+    private Integer position;
+}
@@ -0,0 +1,21 @@
+package com.salesianostriana.dam.trianafy.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Data
+@AllArgsConstructor @NoArgsConstructor
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class SearchIndexStatusDto {
+
+    private boolean running;
+    private Instant startedAt;
+    private Instant finishedAt;
+    private String error;
+}
@@ -0,0 +1,14 @@
+package com.salesianostriana.dam.trianafy.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor @NoArgsConstructor
+public class SuggestionDto {
+
+    private String type;
+    private Long id;
+    private String text;
+}
@@ -0,0 +1,19 @@
+package com.salesianostriana.dam.trianafy.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Data
+@AllArgsConstructor @NoArgsConstructor
+@Builder
+public class SyncArtistDto {
+
+    private Long id;
+    private String name;
+    private String dni;
+    private Instant lastModified;
+}
@@ -0,0 +1,28 @@
+package com.salesianostriana.dam.trianafy.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Current state of everything that changed after the client's watermark; next is
+// the watermark to send on the following call and hasMore asks for another page.
+@Data
+@AllArgsConstructor @NoArgsConstructor
+@Builder
+public class SyncDto {
+
+    @Builder.Default
+    private List<SyncArtistDto> artists = new ArrayList<>();
+    @Builder.Default
+    private List<SyncSongDto> songs = new ArrayList<>();
+    @Builder.Default
+    private List<SyncPlaylistDto> playlists = new ArrayList<>();
+    @Builder.Default
+    private List<TombstoneDto> deleted = new ArrayList<>();
+    private long next;
+    private boolean hasMore;
+}
@@ -0,0 +1,21 @@
+package com.salesianostriana.dam.trianafy.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.List;
+
+@Data
+@AllArgsConstructor @NoArgsConstructor
+@Builder
+public class SyncPlaylistDto {
+
+    private Long id;
+    private String name;
+    private String description;
+    private List<Long> songIds;
+    private Instant lastModified;
+}
@@ -0,0 +1,21 @@
+package com.salesianostriana.dam.trianafy.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Data
+@AllArgsConstructor @NoArgsConstructor
+@Builder
+public class SyncSongDto {
+
+    private Long id;
+    private String title;
+    private String album;
+    private String year;
+    private Long artistId;
+    private Instant lastModified;
+}
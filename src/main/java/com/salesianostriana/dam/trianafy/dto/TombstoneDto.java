@@ -0,0 +1,19 @@
+package com.salesianostriana.dam.trianafy.dto;
+
+import com.salesianostriana.dam.trianafy.model.ChangeEvent;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Data
+@AllArgsConstructor @NoArgsConstructor
+@Builder
+public class TombstoneDto {
+
+    private ChangeEvent.Type type;
+    private Long id;
+    private Instant deletedAt;
+}
@@ -1,32 +1,60 @@
 package com.salesianostriana.dam.trianafy.model;
 
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
+import org.hibernate.annotations.UpdateTimestamp;
+import org.hibernate.search.engine.backend.types.Projectable;
+import org.hibernate.search.mapper.pojo.mapping.definition.annotation.FullTextField;
 
+import javax.persistence.Cacheable;
 import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.SequenceGenerator;
+import javax.persistence.Version;
+import java.time.Instant;
 import java.util.Objects;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "artist")
+@NaturalIdCache(region = "artist-natural-id")
+@JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
 @NoArgsConstructor @AllArgsConstructor
 @Data
 @Builder
 public class Artist {
 
     @Id
-    @GeneratedValue
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "artist_seq")
+    @SequenceGenerator(name = "artist_seq", sequenceName = "artist_seq", allocationSize = 50)
     private Long id;
 
+    @FullTextField(analyzer = "name", projectable = Projectable.YES)
+    @FullTextField(name = "name_prefix", analyzer = "autocomplete_indexing", searchAnalyzer = "autocomplete_search")
     private String name;
 
     @NaturalId
     private String dni;
 
+    @Version
+    @JsonIgnore
+    private Long version;
+
+    @UpdateTimestamp
+    @JsonIgnore
+    private Instant lastModified;
+
     @Override
     public boolean equals(Object o){
         if(this == o) return true;
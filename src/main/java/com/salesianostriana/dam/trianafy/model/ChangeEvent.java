@@ -0,0 +1,50 @@
+package com.salesianostriana.dam.trianafy.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.*;
+import java.time.Instant;
+
+// Outbox row written in the same transaction as the change it describes; the id
+// doubles as the feed sequence consumers resume from.
+@Entity
+@Table(name = "change_event", indexes = @Index(name = "ix_change_event_entity", columnList = "entity_type, entity_id"))
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+@Builder
+public class ChangeEvent {
+
+    public enum Type { ARTIST, SONG, PLAYLIST }
+
+    public enum Operation { CREATED, UPDATED, DELETED }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "change_event_seq")
+    @SequenceGenerator(name = "change_event_seq", sequenceName = "change_event_seq", allocationSize = 50)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "entity_type", nullable = false, length = 16)
+    private Type entityType;
+
+    @Column(name = "entity_id", nullable = false)
+    private Long entityId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private Operation operation;
+
+    @Column(nullable = false)
+    private Instant occurredAt;
+
+    public ChangeEvent(Type entityType, Long entityId, Operation operation) {
+        this.entityType = entityType;
+        this.entityId = entityId;
+        this.operation = operation;
+        this.occurredAt = Instant.now();
+    }
+}
@@ -1,15 +1,31 @@
 package com.salesianostriana.dam.trianafy.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.UpdateTimestamp;
 
 import javax.persistence.*;
+import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "playlist")
+@NamedEntityGraph(name = "Playlist.detail",
+        attributeNodes = @NamedAttributeNode(value = "entries", subgraph = "entries"),
+        subgraphs = {
+                @NamedSubgraph(name = "entries", attributeNodes = @NamedAttributeNode(value = "song", subgraph = "song")),
+                @NamedSubgraph(name = "song", attributeNodes = @NamedAttributeNode("artist"))
+        })
 @NoArgsConstructor
 @AllArgsConstructor
 @Data
@@ -17,29 +33,52 @@ import java.util.List;
 public class Playlist {
 
     @Id
-    @GeneratedValue
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "playlist_seq")
+    @SequenceGenerator(name = "playlist_seq", sequenceName = "playlist_seq", allocationSize = 50)
     private Long id;
 
     private String name;
 
     private String description;
 
-    @ManyToMany(fetch = FetchType.EAGER)
+    @OneToMany(mappedBy = "playlist", cascade = {CascadeType.PERSIST, CascadeType.MERGE}, orphanRemoval = true)
+    @OrderBy("position")
+    @JsonIgnore
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     @Builder.Default
-    private List<Song> songs = new ArrayList<>();
+    private List<PlaylistEntry> entries = new ArrayList<>();
+
+    @Version
+    @JsonIgnore
+    private Long version;
+
+    @UpdateTimestamp
+    @JsonIgnore
+    private Instant lastModified;
 
     public Playlist(String name, String description){
         this.name = name;
         this.description = description;
     }
 
+    @JsonProperty(value = "songs", access = JsonProperty.Access.READ_ONLY)
+    public List<Song> getSongs() {
+        return entries.stream().map(PlaylistEntry::getSong).toList();
+    }
+
     public void addSong(Song song) {
-        songs.add(song);
+        long position = entries.isEmpty() ? 0 : entries.get(entries.size() - 1).getPosition();
+        entries.add(new PlaylistEntry(this, song, position + PlaylistEntry.STEP));
     }
 
     public void deleteSong(Song song) {
-        songs.remove(song);
+        for (int i = 0; i < entries.size(); i++) {
+            if (entries.get(i).getSong().getId().equals(song.getId())) {
+                entries.remove(i);
+                return;
+            }
+        }
     }
 
-
 }
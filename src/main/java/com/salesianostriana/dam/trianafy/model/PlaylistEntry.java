@@ -0,0 +1,46 @@
+package com.salesianostriana.dam.trianafy.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import javax.persistence.*;
+
+// Positions leave gaps of STEP so that most inserts and moves rewrite a single row.
+@Entity
+@Table(name = "playlist_entry", indexes = {
+        @Index(name = "ix_playlist_entry_playlist_song", columnList = "playlist_id, song_id"),
+        @Index(name = "ix_playlist_entry_playlist", columnList = "playlist_id"),
+        @Index(name = "ix_playlist_entry_playlist_position", columnList = "playlist_id, position, song_id"),
+        @Index(name = "ix_playlist_entry_song", columnList = "song_id")
+})
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+@Builder
+public class PlaylistEntry {
+
+    public static final long STEP = 1024;
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "playlist_entry_seq")
+    @SequenceGenerator(name = "playlist_entry_seq", sequenceName = "playlist_entry_seq", allocationSize = 50)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    private Playlist playlist;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    private Song song;
+
+    private long position;
+
+    public PlaylistEntry(Playlist playlist, Song song, long position) {
+        this.playlist = playlist;
+        this.song = song;
+        this.position = position;
+    }
+}
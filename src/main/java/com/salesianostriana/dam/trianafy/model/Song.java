@@ -1,15 +1,36 @@
 package com.salesianostriana.dam.trianafy.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonView;
 import com.salesianostriana.dam.trianafy.views.View;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.UpdateTimestamp;
+import org.hibernate.search.engine.backend.types.Projectable;
+import org.hibernate.search.mapper.pojo.automaticindexing.ReindexOnUpdate;
+import org.hibernate.search.mapper.pojo.mapping.definition.annotation.FullTextField;
+import org.hibernate.search.mapper.pojo.mapping.definition.annotation.Indexed;
+import org.hibernate.search.mapper.pojo.mapping.definition.annotation.IndexedEmbedded;
+import org.hibernate.search.mapper.pojo.mapping.definition.annotation.IndexingDependency;
+import org.hibernate.search.mapper.pojo.mapping.definition.annotation.KeywordField;
 
 import javax.persistence.*;
+import java.time.Instant;
 
 @Entity
+@Table(indexes = {
+        @Index(name = "ix_song_artist", columnList = "artist_id"),
+        @Index(name = "ix_song_title", columnList = "title"),
+        @Index(name = "ix_song_album", columnList = "album")
+})
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "song")
+@NamedEntityGraph(name = "Song.withArtist", attributeNodes = @NamedAttributeNode("artist"))
+@Indexed(index = "song")
 @NoArgsConstructor
 @AllArgsConstructor
 @Data
@@ -17,20 +38,35 @@ import javax.persistence.*;
 public class Song {
 
     @Id
-    @GeneratedValue
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "song_seq")
+    @SequenceGenerator(name = "song_seq", sequenceName = "song_seq", allocationSize = 50)
     private Long id;
 
     @JsonView(View.Base.class)
+    @FullTextField(analyzer = "name", projectable = Projectable.YES)
+    @FullTextField(name = "title_prefix", analyzer = "autocomplete_indexing", searchAnalyzer = "autocomplete_search")
     private String title;
     @JsonView(View.Base.class)
+    @FullTextField(analyzer = "name", projectable = Projectable.YES)
     private String album;
     @Column(name = "year_of_song")
     @JsonView(View.Base.class)
+    @KeywordField(projectable = Projectable.YES)
     private String year;
 
-    @ManyToOne(fetch = FetchType.EAGER)
+    @ManyToOne(fetch = FetchType.LAZY)
+    @IndexedEmbedded(includePaths = {"name", "name_prefix"})
+    @IndexingDependency(reindexOnUpdate = ReindexOnUpdate.SHALLOW)
     private Artist artist;
 
+    @Version
+    @JsonIgnore
+    private Long version;
+
+    @UpdateTimestamp
+    @JsonIgnore
+    private Instant lastModified;
+
     public Song(String title, String album, String year){
         this.title = title;
         this.album = album;
@@ -0,0 +1,32 @@
+package com.salesianostriana.dam.trianafy.monitoring;
+
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+
+@Component
+public class DataSourceProxyPostProcessor implements BeanPostProcessor {
+
+    // Resolved lazily: a post-processor must not pull regular beans in early.
+    // Every listener joins the one proxy, so there is never a proxy of a proxy.
+    private final ObjectProvider<QueryExecutionListener> listeners;
+
+    public DataSourceProxyPostProcessor(ObjectProvider<QueryExecutionListener> listeners) {
+        this.listeners = listeners;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof DataSource dataSource && !(bean instanceof ProxyDataSource)) {
+            ProxyDataSourceBuilder builder = ProxyDataSourceBuilder.create(dataSource).name(beanName);
+            listeners.orderedStream().forEach(builder::listener);
+            return builder.build();
+        }
+        return bean;
+    }
+}
@@ -0,0 +1,73 @@
+package com.salesianostriana.dam.trianafy.monitoring;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+
+import java.util.HashMap;
+import java.util.Map;
+
+@Getter
+public class RequestStatistics {
+
+    private static final ThreadLocal<RequestStatistics> CURRENT = new ThreadLocal<>();
+
+    private final String method;
+    private final String uri;
+
+    private long statements;
+    @Getter(AccessLevel.NONE)
+    private long sqlNanos;
+    private long entityLoads;
+    private long collectionFetches;
+    private long cacheHits;
+    private long cacheMisses;
+
+    @Getter(AccessLevel.NONE)
+    private final Map<String, Integer> executionsBySql = new HashMap<>();
+
+    private RequestStatistics(String method, String uri) {
+        this.method = method;
+        this.uri = uri;
+    }
+
+    static RequestStatistics start(String method, String uri) {
+        RequestStatistics statistics = new RequestStatistics(method, uri);
+        CURRENT.set(statistics);
+        return statistics;
+    }
+
+    static void end() {
+        CURRENT.remove();
+    }
+
+    // Null outside an HTTP request (startup, async streaming, scheduled work).
+    static RequestStatistics current() {
+        return CURRENT.get();
+    }
+
+    // Returns how many times this exact SQL has run during the request.
+    int statement(String sql, long nanos) {
+        statements++;
+        sqlNanos += nanos;
+        return executionsBySql.merge(sql, 1, Integer::sum);
+    }
+
+    public long getSqlMillis() {
+        return sqlNanos / 1_000_000;
+    }
+
+    void entityLoad() {
+        entityLoads++;
+    }
+
+    void collectionFetch() {
+        collectionFetches++;
+    }
+
+    void cacheGet(boolean hit) {
+        if (hit)
+            cacheHits++;
+        else
+            cacheMisses++;
+    }
+}
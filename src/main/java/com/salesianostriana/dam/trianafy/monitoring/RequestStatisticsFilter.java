@@ -0,0 +1,55 @@
+package com.salesianostriana.dam.trianafy.monitoring;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+// Records the database work done by each request, tagged like http.server.requests.
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class RequestStatisticsFilter extends OncePerRequestFilter {
+
+    private final MeterRegistry registry;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        RequestStatistics statistics = RequestStatistics.start(request.getMethod(), request.getRequestURI());
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            RequestStatistics.end();
+            log.debug("{} {} -> {} statements in {} ms", statistics.getMethod(), statistics.getUri(),
+                    statistics.getStatements(), statistics.getSqlMillis());
+            Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            if (pattern != null) {
+                Tags tags = Tags.of("method", request.getMethod(), "uri", pattern.toString());
+                record("statements", tags, statistics.getStatements());
+                record("sql.millis", tags, statistics.getSqlMillis());
+                record("entity.loads", tags, statistics.getEntityLoads());
+                record("collection.fetches", tags, statistics.getCollectionFetches());
+                record("cache.hits", tags, statistics.getCacheHits());
+                record("cache.misses", tags, statistics.getCacheMisses());
+            }
+        }
+    }
+
+    private void record(String name, Tags tags, long value) {
+        DistributionSummary.builder("trianafy.hibernate.request." + name)
+                .tags(tags)
+                .register(registry)
+                .record(value);
+    }
+}
@@ -0,0 +1,47 @@
+package com.salesianostriana.dam.trianafy.monitoring;
+
+import lombok.RequiredArgsConstructor;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.InitializeCollectionEvent;
+import org.hibernate.event.spi.InitializeCollectionEventListener;
+import org.hibernate.event.spi.PostLoadEvent;
+import org.hibernate.event.spi.PostLoadEventListener;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import javax.persistence.EntityManagerFactory;
+
+@Component
+@RequiredArgsConstructor
+public class RequestStatisticsLoadListener implements PostLoadEventListener, InitializeCollectionEventListener {
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    // Not @PostConstruct: unwrapping the factory would block startup until a deferred
+    // JPA bootstrap finishes, and a lazily initialized bean would never be created.
+    @EventListener(ContextRefreshedEvent.class)
+    public void register() {
+        EventListenerRegistry registry = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry()
+                .getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_LOAD, this);
+        registry.appendListeners(EventType.INIT_COLLECTION, this);
+    }
+
+    @Override
+    public void onPostLoad(PostLoadEvent event) {
+        RequestStatistics statistics = RequestStatistics.current();
+        if (statistics != null)
+            statistics.entityLoad();
+    }
+
+    @Override
+    public void onInitializeCollection(InitializeCollectionEvent event) {
+        RequestStatistics statistics = RequestStatistics.current();
+        if (statistics != null)
+            statistics.collectionFetch();
+    }
+}
@@ -0,0 +1,14 @@
+package com.salesianostriana.dam.trianafy.monitoring;
+
+import org.hibernate.BaseSessionEventListener;
+
+// Instantiated by Hibernate for every session (hibernate.session.events.auto).
+public class RequestStatisticsSessionListener extends BaseSessionEventListener {
+
+    @Override
+    public void cacheGetEnd(boolean hit) {
+        RequestStatistics statistics = RequestStatistics.current();
+        if (statistics != null)
+            statistics.cacheGet(hit);
+    }
+}
@@ -0,0 +1,35 @@
+package com.salesianostriana.dam.trianafy.monitoring;
+
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+// Headers are written before the body, so lazy loads triggered while
+// serializing are only reflected in the log line and the metrics.
+@ControllerAdvice
+public class SqlBudgetHeaderAdvice implements ResponseBodyAdvice<Object> {
+
+    public static final String SQL_COUNT_HEADER = "X-Sql-Count";
+    public static final String SQL_TIME_HEADER = "X-Sql-Time-Ms";
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        RequestStatistics statistics = RequestStatistics.current();
+        if (statistics != null) {
+            response.getHeaders().set(SQL_COUNT_HEADER, String.valueOf(statistics.getStatements()));
+            response.getHeaders().set(SQL_TIME_HEADER, String.valueOf(statistics.getSqlMillis()));
+        }
+        return body;
+    }
+}
@@ -0,0 +1,50 @@
+package com.salesianostriana.dam.trianafy.monitoring;
+
+import lombok.extern.slf4j.Slf4j;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Collectors;
+
+@Slf4j
+@Component
+public class SqlBudgetListener implements QueryExecutionListener {
+
+    private static final String STARTED_AT = "trianafy.startedAt";
+
+    private final long slowQueryNanos;
+    private final int nPlusOneThreshold;
+
+    public SqlBudgetListener(@Value("${trianafy.sql.slow-query-threshold}") Duration slowQueryThreshold,
+                             @Value("${trianafy.sql.n-plus-one-threshold}") int nPlusOneThreshold) {
+        this.slowQueryNanos = slowQueryThreshold.toNanos();
+        this.nPlusOneThreshold = nPlusOneThreshold;
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        execInfo.addCustomValue(STARTED_AT, System.nanoTime());
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        long nanos = System.nanoTime() - execInfo.getCustomValue(STARTED_AT, Long.class);
+        String sql = queryInfoList.stream().map(QueryInfo::getQuery).collect(Collectors.joining("; "));
+
+        if (nanos >= slowQueryNanos)
+            log.warn("Slow query ({} ms, {} statement batch): {}", nanos / 1_000_000, execInfo.getBatchSize(), sql);
+
+        RequestStatistics statistics = RequestStatistics.current();
+        if (statistics == null)
+            return;
+        // Warn once per request and statement, when it crosses the threshold.
+        if (statistics.statement(sql, nanos) == nPlusOneThreshold)
+            log.warn("Possible N+1: {} {} ran the same statement {} times: {}",
+                    statistics.getMethod(), statistics.getUri(), nPlusOneThreshold, sql);
+    }
+}
@@ -0,0 +1,97 @@
+package com.salesianostriana.dam.trianafy.reactive;
+
+import com.salesianostriana.dam.trianafy.dto.GetPlaylistDto;
+import com.salesianostriana.dam.trianafy.dto.GetSongDto;
+import com.salesianostriana.dam.trianafy.model.Artist;
+import io.r2dbc.spi.Row;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+// Read-only SQL over the tables mapped by the JPA entities; writes stay on the JPA side.
+class ReactiveCatalogRepository {
+
+    private static final String SONG_COLUMNS =
+            "s.id, s.title, a.name as artist_name, s.album, s.year_of_song";
+
+    private final DatabaseClient client;
+
+    ReactiveCatalogRepository(DatabaseClient client) {
+        this.client = client;
+    }
+
+    Flux<GetSongDto> findSongs(long afterId, int limit) {
+        return client.sql("select " + SONG_COLUMNS + " from song s left join artist a on a.id = s.artist_id " +
+                        "where s.id > :afterId order by s.id limit :limit")
+                .bind("afterId", afterId)
+                .bind("limit", limit)
+                .map((row, metadata) -> song(row, null, null))
+                .all();
+    }
+
+    Mono<GetSongDto> findSong(long id) {
+        return client.sql("select " + SONG_COLUMNS + " from song s left join artist a on a.id = s.artist_id " +
+                        "where s.id = :id")
+                .bind("id", id)
+                .map((row, metadata) -> song(row, null, null))
+                .one();
+    }
+
+    // Positions are not unique, so the keyset is (position, entry id), as on the MVC side.
+    Flux<GetSongDto> findPlaylistSongs(long playlistId, long afterPosition, long afterEntryId, int limit) {
+        return client.sql("select " + SONG_COLUMNS + ", e.position, e.id as entry_id from playlist_entry e " +
+                        "join song s on s.id = e.song_id left join artist a on a.id = s.artist_id " +
+                        "where e.playlist_id = :playlistId " +
+                        "and (e.position > :afterPosition or (e.position = :afterPosition and e.id > :afterEntryId)) " +
+                        "order by e.position, e.id limit :limit")
+                .bind("playlistId", playlistId)
+                .bind("afterPosition", afterPosition)
+                .bind("afterEntryId", afterEntryId)
+                .bind("limit", limit)
+                .map((row, metadata) -> song(row, row.get("position", Long.class), row.get("entry_id", Long.class)))
+                .all();
+    }
+
+    Flux<Artist> findArtists() {
+        return client.sql("select id, name, dni from artist order by id")
+                .map((row, metadata) -> artist(row))
+                .all();
+    }
+
+    Mono<Artist> findArtist(long id) {
+        return client.sql("select id, name, dni from artist where id = :id")
+                .bind("id", id)
+                .map((row, metadata) -> artist(row))
+                .one();
+    }
+
+    Flux<GetPlaylistDto> findPlaylists(int offset, int limit) {
+        return client.sql("select p.id, p.name, count(e.id) as number_songs from playlist p " +
+                        "left join playlist_entry e on e.playlist_id = p.id " +
+                        "group by p.id, p.name order by p.name, p.id limit :limit offset :offset")
+                .bind("limit", limit)
+                .bind("offset", offset)
+                .map((row, metadata) -> new GetPlaylistDto(
+                        row.get("id", Long.class), row.get("name", String.class), row.get("number_songs", Long.class)))
+                .all();
+    }
+
+    private static GetSongDto song(Row row, Long position, Long entryId) {
+        return new GetSongDto(
+                row.get("id", Long.class),
+                row.get("title", String.class),
+                row.get("artist_name", String.class),
+                row.get("album", String.class),
+                row.get("year_of_song", String.class),
+                position,
+                entryId);
+    }
+
+    private static Artist artist(Row row) {
+        return Artist.builder()
+                .id(row.get("id", Long.class))
+                .name(row.get("name", String.class))
+                .dni(row.get("dni", String.class))
+                .build();
+    }
+}
@@ -0,0 +1,79 @@
+package com.salesianostriana.dam.trianafy.reactive;
+
+import com.salesianostriana.dam.trianafy.dto.GetPlaylistDto;
+import com.salesianostriana.dam.trianafy.dto.GetSongDto;
+import com.salesianostriana.dam.trianafy.model.Artist;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import static org.springframework.web.reactive.function.server.RouterFunctions.route;
+
+// Lists are written as NDJSON when the client asks for it, so rows flow to the
+// socket as they are read and Netty's backpressure reaches the database cursor.
+class ReactiveCatalogRoutes {
+
+    private final ReactiveCatalogRepository repository;
+    private final int defaultPageSize;
+    private final int maxPageSize;
+
+    ReactiveCatalogRoutes(ReactiveCatalogRepository repository, int defaultPageSize, int maxPageSize) {
+        this.repository = repository;
+        this.defaultPageSize = defaultPageSize;
+        this.maxPageSize = maxPageSize;
+    }
+
+    RouterFunction<ServerResponse> routes() {
+        return route()
+                .GET("/reactive/song", request -> list(request, repository.findSongs(
+                        longParam(request, "afterId", 0L), size(request)), GetSongDto.class))
+                .GET("/reactive/song/{id}", request -> single(repository.findSong(id(request)), GetSongDto.class))
+                .GET("/reactive/artist", request -> list(request, repository.findArtists(), Artist.class))
+                .GET("/reactive/artist/{id}", request -> single(repository.findArtist(id(request)), Artist.class))
+                .GET("/reactive/list", request -> list(request, repository.findPlaylists(
+                        (int) longParam(request, "page", 0L) * size(request), size(request)), GetPlaylistDto.class))
+                .GET("/reactive/list/{id}/song", request -> list(request, repository.findPlaylistSongs(
+                        id(request), longParam(request, "afterPosition", Long.MIN_VALUE),
+                        longParam(request, "afterEntryId", Long.MIN_VALUE), size(request)), GetSongDto.class))
+                .build();
+    }
+
+    private <T> Mono<ServerResponse> list(ServerRequest request, Flux<T> body, Class<T> type) {
+        MediaType contentType = request.headers().accept().contains(MediaType.APPLICATION_NDJSON)
+                ? MediaType.APPLICATION_NDJSON
+                : MediaType.APPLICATION_JSON;
+        return ServerResponse.ok().contentType(contentType).body(body, type);
+    }
+
+    private <T> Mono<ServerResponse> single(Mono<T> body, Class<T> type) {
+        return body.flatMap(value -> ServerResponse.ok().contentType(MediaType.APPLICATION_JSON).bodyValue(value))
+                .switchIfEmpty(ServerResponse.notFound().build());
+    }
+
+    private static long id(ServerRequest request) {
+        return parse("id", request.pathVariable("id"));
+    }
+
+    private static long longParam(ServerRequest request, String name, long defaultValue) {
+        return request.queryParam(name).map(value -> parse(name, value)).orElse(defaultValue);
+    }
+
+    // Thrown inside the handler, so the default exception handler answers 400 instead of 500.
+    private static long parse(String name, String value) {
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "El parámetro " + name + " debe ser un número", e);
+        }
+    }
+
+    private int size(ServerRequest request) {
+        int size = (int) longParam(request, "size", defaultPageSize);
+        return Math.max(1, Math.min(size, maxPageSize));
+    }
+}
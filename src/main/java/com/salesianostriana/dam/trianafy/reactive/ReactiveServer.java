@@ -0,0 +1,131 @@
+package com.salesianostriana.dam.trianafy.reactive;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.http.codec.json.Jackson2JsonDecoder;
+import org.springframework.http.codec.json.Jackson2JsonEncoder;
+import org.springframework.http.server.reactive.ReactorHttpHandlerAdapter;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.server.HandlerStrategies;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+
+// Second, non-blocking HTTP server for read traffic, next to Tomcat. The R2DBC
+// pool is deliberately not a bean: a ConnectionFactory bean would make Boot
+// back off from auto-configuring the JDBC DataSource used by JPA.
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "trianafy.reactive.enabled", havingValue = "true")
+public class ReactiveServer implements SmartLifecycle {
+
+    private final DataSource dataSource;
+    private final DataSourceProperties dataSourceProperties;
+    private final ObjectMapper objectMapper;
+    private final int port;
+    private final String url;
+    private final int poolSize;
+    private final Duration acquireTimeout;
+    private final int defaultPageSize;
+    private final int maxPageSize;
+
+    private ConnectionPool pool;
+    private DisposableServer server;
+
+    public ReactiveServer(DataSource dataSource, DataSourceProperties dataSourceProperties, ObjectMapper objectMapper,
+                          @Value("${trianafy.reactive.port}") int port,
+                          @Value("${trianafy.reactive.url:}") String url,
+                          @Value("${trianafy.reactive.pool-size}") int poolSize,
+                          @Value("${trianafy.reactive.acquire-timeout}") Duration acquireTimeout,
+                          @Value("${trianafy.pagination.default-size}") int defaultPageSize,
+                          @Value("${trianafy.pagination.max-size}") int maxPageSize) {
+        this.dataSource = dataSource;
+        this.dataSourceProperties = dataSourceProperties;
+        this.objectMapper = objectMapper;
+        this.port = port;
+        this.url = url;
+        this.poolSize = poolSize;
+        this.acquireTimeout = acquireTimeout;
+        this.defaultPageSize = defaultPageSize;
+        this.maxPageSize = maxPageSize;
+    }
+
+    @Override
+    public void start() {
+        pool = new ConnectionPool(ConnectionPoolConfiguration.builder(ConnectionFactories.get(connectionOptions()))
+                .initialSize(1)
+                .maxSize(poolSize)
+                .maxAcquireTime(acquireTimeout)
+                .build());
+        // Open one connection now, so a wrong URL or credentials fail the startup instead
+        // of leaving every request waiting on the pool.
+        pool.warmup().block(acquireTimeout);
+        ReactiveCatalogRepository repository = new ReactiveCatalogRepository(DatabaseClient.create(pool));
+        HandlerStrategies strategies = HandlerStrategies.builder()
+                .codecs(codecs -> {
+                    codecs.defaultCodecs().jackson2JsonEncoder(new Jackson2JsonEncoder(objectMapper));
+                    codecs.defaultCodecs().jackson2JsonDecoder(new Jackson2JsonDecoder(objectMapper));
+                })
+                .build();
+        ReactorHttpHandlerAdapter handler = new ReactorHttpHandlerAdapter(RouterFunctions.toHttpHandler(
+                new ReactiveCatalogRoutes(repository, defaultPageSize, maxPageSize).routes(), strategies));
+
+        server = HttpServer.create().port(port).handle(handler).bindNow();
+        log.info("Reactive read API listening on port {}", server.port());
+    }
+
+    @Override
+    public void stop() {
+        if (server != null)
+            server.disposeNow();
+        if (pool != null)
+            pool.dispose();
+        server = null;
+        pool = null;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return server != null;
+    }
+
+    public int getPort() {
+        return server.port();
+    }
+
+    // Without an explicit URL, reuse the in-memory H2 database the JPA side is using,
+    // with the same credentials.
+    private ConnectionFactoryOptions connectionOptions() {
+        if (!url.isBlank())
+            return ConnectionFactoryOptions.parse(url);
+        try (Connection connection = dataSource.getConnection()) {
+            String jdbcUrl = connection.getMetaData().getURL();
+            if (!jdbcUrl.startsWith("jdbc:h2:mem:"))
+                throw new IllegalStateException("trianafy.reactive.url is required for " + jdbcUrl);
+            String name = jdbcUrl.substring("jdbc:h2:mem:".length()).split(";")[0];
+            ConnectionFactoryOptions.Builder options = ConnectionFactoryOptions.parse("r2dbc:h2:mem:///" + name + "?options=DB_CLOSE_DELAY=-1")
+                    .mutate()
+                    .option(ConnectionFactoryOptions.USER, connection.getMetaData().getUserName());
+            String password = dataSourceProperties.determinePassword();
+            if (password != null)
+                options.option(ConnectionFactoryOptions.PASSWORD, password);
+            return options.build();
+        } catch (SQLException e) {
+            throw new IllegalStateException("Could not resolve the database for the reactive API", e);
+        }
+    }
+}
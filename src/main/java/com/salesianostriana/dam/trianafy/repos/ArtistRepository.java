@@ -2,6 +2,28 @@ package com.salesianostriana.dam.trianafy.repos;
 
 import com.salesianostriana.dam.trianafy.model.Artist;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+
+import javax.persistence.QueryHint;
+import java.util.Optional;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
 
 public interface ArtistRepository extends JpaRepository<Artist, Long> {
+
+    @Override
+    @QueryHints(@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_CACHEABLE, value = "true"))
+    List<Artist> findAll();
+
+    @Query("select a.id, a.name from Artist a")
+    @QueryHints(@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE, value = "500"))
+    Stream<Object[]> streamNames();
+
+    @Query("select a.dni from Artist a where a.dni in :dnis")
+    Set<String> findExistingDnis(Collection<String> dnis);
+
+    Optional<EntityVersion> findVersionById(Long id);
 }
@@ -0,0 +1,17 @@
+package com.salesianostriana.dam.trianafy.repos;
+
+import com.salesianostriana.dam.trianafy.model.ChangeEvent;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.List;
+import java.util.Optional;
+
+public interface ChangeEventRepository extends JpaRepository<ChangeEvent, Long> {
+
+    List<ChangeEvent> findByIdGreaterThanAndIdLessThanOrderByIdAsc(Long since, Long horizon, Pageable pageable);
+
+    @Query("select max(c.id) from ChangeEvent c")
+    Optional<Long> findMaxId();
+}
@@ -0,0 +1,10 @@
+package com.salesianostriana.dam.trianafy.repos;
+
+import java.time.Instant;
+
+public interface EntityVersion {
+
+    Long getVersion();
+
+    Instant getLastModified();
+}
@@ -0,0 +1,78 @@
+package com.salesianostriana.dam.trianafy.repos;
+
+import com.salesianostriana.dam.trianafy.dto.GetSongDto;
+import com.salesianostriana.dam.trianafy.model.PlaylistEntry;
+import com.salesianostriana.dam.trianafy.model.Song;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+
+import javax.persistence.QueryHint;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+public interface PlaylistEntryRepository extends JpaRepository<PlaylistEntry, Long> {
+
+    @Query("select s from PlaylistEntry e join e.song s left join fetch s.artist " +
+            "where e.playlist.id = :playlistId and s.id = :songId")
+    List<Song> findSongInPlaylist(Long playlistId, Long songId, Pageable pageable);
+
+    // Positions are not unique, so the keyset is (position, id).
+    @Query("select new com.salesianostriana.dam.trianafy.dto.GetSongDto(s.id, s.title, a.name, s.album, s.year, e.position, e.id) " +
+            "from PlaylistEntry e join e.song s left join s.artist a " +
+            "where e.playlist.id = :playlistId " +
+            "and (e.position > :afterPosition or (e.position = :afterPosition and e.id > :afterId)) " +
+            "order by e.position, e.id")
+    List<GetSongDto> findSongsAfter(Long playlistId, long afterPosition, long afterId, Pageable pageable);
+
+    @Query("select new com.salesianostriana.dam.trianafy.dto.GetSongDto(s.id, s.title, a.name, s.album, s.year, e.position, e.id) " +
+            "from PlaylistEntry e join e.song s left join s.artist a " +
+            "where e.playlist.id = :playlistId order by e.position, e.id")
+    Slice<GetSongDto> findSongPage(Long playlistId, Pageable pageable);
+
+    @Query("select new com.salesianostriana.dam.trianafy.dto.GetSongDto(s.id, s.title, a.name, s.album, s.year, e.position, e.id) " +
+            "from PlaylistEntry e join e.song s left join s.artist a " +
+            "where e.playlist.id = :playlistId order by e.position, e.id")
+    @QueryHints(@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE, value = "500"))
+    Stream<GetSongDto> streamSongs(Long playlistId);
+
+    boolean existsByPlaylistIdAndSongId(Long playlistId, Long songId);
+
+    // A song can appear more than once; these pick occurrences in playlist order.
+    Optional<PlaylistEntry> findFirstByPlaylistIdAndSongIdOrderByPositionAscIdAsc(Long playlistId, Long songId);
+
+    @Query("select e.id, e.song.id from PlaylistEntry e where e.playlist.id = :playlistId and e.song.id in :songIds " +
+            "order by e.position, e.id")
+    List<Object[]> findEntryIdsBySongIdIn(Long playlistId, Collection<Long> songIds);
+
+    @Query("select max(e.position) from PlaylistEntry e where e.playlist.id = :playlistId")
+    Optional<Long> findMaxPosition(Long playlistId);
+
+    @Modifying
+    @Query("update PlaylistEntry e set e.position = :position where e.id = :id")
+    int updatePosition(Long id, long position);
+
+    @Modifying
+    @Query("delete from PlaylistEntry e where e.id in :ids")
+    int deleteByIdIn(Collection<Long> ids);
+
+    @Query("select distinct e.playlist.id from PlaylistEntry e where e.song.id = :songId")
+    List<Long> findPlaylistIdsBySongId(Long songId);
+
+    @Query("select e.playlist.id, e.song.id from PlaylistEntry e where e.playlist.id in :playlistIds " +
+            "order by e.playlist.id, e.position")
+    List<Object[]> findSongIdsByPlaylistIdIn(Collection<Long> playlistIds);
+
+    @Modifying
+    @Query("delete from PlaylistEntry e where e.playlist.id = :playlistId")
+    int deleteByPlaylistId(Long playlistId);
+
+    @Modifying
+    @Query("delete from PlaylistEntry e where e.song.id = :songId")
+    int deleteBySongId(Long songId);
+}
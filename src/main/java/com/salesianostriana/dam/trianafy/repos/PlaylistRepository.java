@@ -1,7 +1,39 @@
 package com.salesianostriana.dam.trianafy.repos;
 
+import com.salesianostriana.dam.trianafy.dto.GetPlaylistDto;
 import com.salesianostriana.dam.trianafy.model.Playlist;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+
+import javax.persistence.LockModeType;
+import javax.persistence.QueryHint;
+import java.util.Optional;
 
 public interface PlaylistRepository extends JpaRepository<Playlist, Long> {
+
+    @Query("select new com.salesianostriana.dam.trianafy.dto.GetPlaylistDto(p.id, p.name, count(e)) " +
+            "from Playlist p left join p.entries e group by p.id, p.name")
+    @QueryHints(@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_CACHEABLE, value = "true"))
+    Slice<GetPlaylistDto> findSummaries(Pageable pageable);
+
+    @EntityGraph("Playlist.detail")
+    Optional<Playlist> findDetailById(Long id);
+
+    Optional<EntityVersion> findVersionById(Long id);
+
+    // Serializes the changes to a playlist's entries: the second writer waits for the row
+    // and then reads the version the first one committed.
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    Optional<Playlist> findForUpdateById(Long id);
+
+    @Modifying
+    @Query("update Playlist p set p.version = p.version + 1, p.lastModified = current_timestamp " +
+            "where p.id in (select e.playlist.id from PlaylistEntry e where e.song.id = :songId)")
+    int touchBySongId(Long songId);
 }
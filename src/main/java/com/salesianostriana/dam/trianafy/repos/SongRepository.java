@@ -1,7 +1,45 @@
 package com.salesianostriana.dam.trianafy.repos;
 
 import com.salesianostriana.dam.trianafy.model.Song;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+
+import javax.persistence.QueryHint;
+import java.util.Optional;
+import java.util.List;
+import java.util.stream.Stream;
 
 public interface SongRepository extends JpaRepository<Song, Long> {
+
+    @EntityGraph("Song.withArtist")
+    List<Song> findByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
+
+    @EntityGraph("Song.withArtist")
+    Optional<Song> findWithArtistById(Long id);
+
+    @Query("select s from Song s left join fetch s.artist order by s.id")
+    @QueryHints(@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE, value = "500"))
+    Stream<Song> streamAll();
+
+    @Query("select new com.salesianostriana.dam.trianafy.model.Song(s.title, s.album, s.year) from Song s order by s.id")
+    @QueryHints(@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE, value = "500"))
+    Stream<Song> streamViews();
+
+    @Query("select s.id, s.title from Song s")
+    @QueryHints(@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE, value = "500"))
+    Stream<Object[]> streamTitles();
+
+    @Query("select s.id from Song s where s.artist.id = :artistId")
+    List<Long> findIdsByArtistId(Long artistId);
+
+    @Modifying(clearAutomatically = true)
+    @Query("update Song s set s.artist = null, s.version = s.version + 1, s.lastModified = current_timestamp " +
+            "where s.artist.id = :artistId")
+    int detachArtist(Long artistId);
+
+    Optional<EntityVersion> findVersionById(Long id);
 }
@@ -0,0 +1,34 @@
+package com.salesianostriana.dam.trianafy.routing;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.Map;
+
+// Sends read-only transactions to a replica within the lag tolerance and
+// everything else to the primary. The read-only flag is only known once the
+// transaction has started, so this must sit behind a LazyConnectionDataSourceProxy.
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+
+    static final String PRIMARY = "primary";
+
+    private final ReplicaLagMonitor lagMonitor;
+
+    public ReadWriteRoutingDataSource(DataSource primary, Map<String, DataSource> replicas, ReplicaLagMonitor lagMonitor) {
+        this.lagMonitor = lagMonitor;
+        Map<Object, Object> targets = new HashMap<>(replicas);
+        targets.put(PRIMARY, primary);
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly() || ReadYourWrites.isSticky())
+            return PRIMARY;
+        return lagMonitor.nextReplica().orElse(PRIMARY);
+    }
+}
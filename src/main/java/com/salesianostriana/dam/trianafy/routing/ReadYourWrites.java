@@ -0,0 +1,23 @@
+package com.salesianostriana.dam.trianafy.routing;
+
+// Marks the current thread as belonging to a client that wrote recently, so its
+// reads must not go to a replica that may not have caught up yet.
+public final class ReadYourWrites {
+
+    private static final ThreadLocal<Boolean> STICKY = new ThreadLocal<>();
+
+    private ReadYourWrites() {
+    }
+
+    public static void stick() {
+        STICKY.set(Boolean.TRUE);
+    }
+
+    public static void clear() {
+        STICKY.remove();
+    }
+
+    public static boolean isSticky() {
+        return STICKY.get() != null;
+    }
+}
@@ -0,0 +1,62 @@
+package com.salesianostriana.dam.trianafy.routing;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseCookie;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.Cookie;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Set;
+
+// A mutating request pins the client to the primary for the stickiness window
+// through a short-lived cookie, so it never reads back an older state from a
+// replica that has not applied its own write yet.
+@Component
+@ConditionalOnProperty(name = "trianafy.replica.enabled", havingValue = "true")
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+
+    static final String COOKIE = "trianafy-primary";
+
+    private static final Set<String> SAFE_METHODS = Set.of("GET", "HEAD", "OPTIONS", "TRACE");
+
+    private final Duration stickiness;
+
+    public ReadYourWritesFilter(@Value("${trianafy.replica.stickiness}") Duration stickiness) {
+        this.stickiness = stickiness;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        boolean writes = !SAFE_METHODS.contains(request.getMethod());
+        if (writes) {
+            response.addHeader(HttpHeaders.SET_COOKIE, ResponseCookie.from(COOKIE, "1")
+                    .path("/")
+                    .maxAge(stickiness)
+                    .httpOnly(true)
+                    .sameSite("Lax")
+                    .build().toString());
+        }
+        if (writes || hasCookie(request))
+            ReadYourWrites.stick();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            ReadYourWrites.clear();
+        }
+    }
+
+    private static boolean hasCookie(HttpServletRequest request) {
+        Cookie[] cookies = request.getCookies();
+        return cookies != null && Arrays.stream(cookies).anyMatch(c -> COOKIE.equals(c.getName()));
+    }
+}
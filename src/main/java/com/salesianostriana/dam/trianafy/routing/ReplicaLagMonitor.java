@@ -0,0 +1,94 @@
+package com.salesianostriana.dam.trianafy.routing;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Writes a heartbeat to the primary and reads it back from every replica; the
+// difference is the replica's lag. A replica is only used while its lag is within
+// maxLag, so maxLag should be comfortably larger than the check interval.
+@Slf4j
+public class ReplicaLagMonitor implements AutoCloseable {
+
+    static final String TABLE = "replica_heartbeat";
+
+    private final JdbcTemplate primary;
+    private final Map<String, JdbcTemplate> replicas = new LinkedHashMap<>();
+    private final long maxLagMillis;
+    private final Map<String, Long> lagMillis = new ConcurrentHashMap<>();
+    private final AtomicInteger next = new AtomicInteger();
+    private volatile List<String> available = List.of();
+    private ScheduledExecutorService scheduler;
+
+    public ReplicaLagMonitor(DataSource primary, Map<String, DataSource> replicas, Duration maxLag) {
+        this.primary = new JdbcTemplate(primary);
+        replicas.forEach((key, dataSource) -> this.replicas.put(key, new JdbcTemplate(dataSource)));
+        this.maxLagMillis = maxLag.toMillis();
+    }
+
+    public void start(Duration interval) {
+        primary.execute("create table if not exists " + TABLE + " (id int primary key, beat bigint not null)");
+        check();
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "replica-lag-monitor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::check, interval.toMillis(), interval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    public void check() {
+        long now = System.currentTimeMillis();
+        try {
+            if (primary.update("update " + TABLE + " set beat = ? where id = 1", now) == 0)
+                primary.update("insert into " + TABLE + " (id, beat) values (1, ?)", now);
+        } catch (RuntimeException e) {
+            log.warn("Could not write the replica heartbeat", e);
+        }
+
+        List<String> healthy = new ArrayList<>();
+        replicas.forEach((key, replica) -> {
+            try {
+                Long beat = replica.queryForObject("select beat from " + TABLE + " where id = 1", Long.class);
+                long lag = beat == null ? Long.MAX_VALUE : Math.max(0, now - beat);
+                lagMillis.put(key, lag);
+                if (lag <= maxLagMillis)
+                    healthy.add(key);
+            } catch (RuntimeException e) {
+                lagMillis.put(key, Long.MAX_VALUE);
+                log.debug("Replica {} is not available: {}", key, e.getMessage());
+            }
+        });
+        available = List.copyOf(healthy);
+    }
+
+    // Round robin over the replicas that are currently within the lag tolerance.
+    public Optional<String> nextReplica() {
+        List<String> current = available;
+        if (current.isEmpty())
+            return Optional.empty();
+        return Optional.of(current.get(Math.floorMod(next.getAndIncrement(), current.size())));
+    }
+
+    public Map<String, Long> getLagMillis() {
+        return Map.copyOf(lagMillis);
+    }
+
+    @Override
+    public void close() {
+        if (scheduler != null)
+            scheduler.shutdownNow();
+    }
+}
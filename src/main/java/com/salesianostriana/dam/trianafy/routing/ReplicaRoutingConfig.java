@@ -0,0 +1,88 @@
+package com.salesianostriana.dam.trianafy.routing;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Replaces the auto-configured pool with a primary pool plus one pool per replica
+// url. Only the routing proxy is a bean, so the SQL tracing post-processor and the
+// pool-aware limiter (which unwraps to the primary pool) keep working unchanged.
+@Slf4j
+@Configuration
+@ConditionalOnProperty(name = "trianafy.replica.enabled", havingValue = "true")
+public class ReplicaRoutingConfig implements DisposableBean {
+
+    private final List<AutoCloseable> resources = new ArrayList<>();
+
+    @Bean
+    public DataSource dataSource(DataSourceProperties properties,
+                                 ObjectProvider<MeterRegistry> meterRegistry,
+                                 @Value("${trianafy.replica.urls}") List<String> urls,
+                                 @Value("${trianafy.replica.username:${spring.datasource.username:}}") String username,
+                                 @Value("${trianafy.replica.password:${spring.datasource.password:}}") String password,
+                                 @Value("${trianafy.replica.max-lag}") Duration maxLag,
+                                 @Value("${trianafy.replica.check-interval}") Duration checkInterval) {
+        HikariDataSource primary = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        primary.setPoolName("primary");
+        resources.add(primary);
+
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        for (String url : urls) {
+            String key = "replica-" + replicas.size();
+            HikariDataSource replica = DataSourceBuilder.create()
+                    .type(HikariDataSource.class)
+                    .url(url)
+                    .username(username)
+                    .password(password)
+                    .build();
+            replica.setPoolName(key);
+            replica.setReadOnly(true);
+            resources.add(replica);
+            replicas.put(key, replica);
+        }
+
+        ReplicaLagMonitor lagMonitor = new ReplicaLagMonitor(primary, replicas, maxLag);
+        resources.add(lagMonitor);
+        lagMonitor.start(checkInterval);
+        meterRegistry.ifAvailable(registry -> replicas.keySet().forEach(key ->
+                Gauge.builder("trianafy.replica.lag", lagMonitor, m -> m.getLagMillis().getOrDefault(key, Long.MAX_VALUE))
+                        .tag("replica", key)
+                        .baseUnit("milliseconds")
+                        .register(registry)));
+        log.info("Routing read-only transactions to {} replica(s)", replicas.size());
+
+        return new LazyConnectionDataSourceProxy(new ReadWriteRoutingDataSource(primary, replicas, lagMonitor));
+    }
+
+    // Under open-in-view Hibernate would otherwise keep the first connection for the
+    // whole request, so a write after a routed read would land on the replica.
+    @Bean
+    public HibernatePropertiesCustomizer releaseConnectionAfterTransaction() {
+        return properties -> properties.put("hibernate.connection.handling_mode",
+                "DELAYED_ACQUISITION_AND_RELEASE_AFTER_TRANSACTION");
+    }
+
+    @Override
+    public void destroy() throws Exception {
+        for (int i = resources.size() - 1; i >= 0; i--)
+            resources.get(i).close();
+    }
+}
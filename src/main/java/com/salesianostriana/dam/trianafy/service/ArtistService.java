@@ -2,10 +2,15 @@ package com.salesianostriana.dam.trianafy.service;
 
 
 import com.salesianostriana.dam.trianafy.model.Artist;
+import com.salesianostriana.dam.trianafy.model.ChangeEvent;
 import com.salesianostriana.dam.trianafy.repos.ArtistRepository;
+import com.salesianostriana.dam.trianafy.repos.SongRepository;
 import lombok.RequiredArgsConstructor;
+import org.hibernate.Session;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import javax.persistence.EntityManager;
 import java.util.List;
 import java.util.Optional;
 
@@ -14,30 +19,64 @@ import java.util.Optional;
 public class ArtistService {
 
     private final ArtistRepository repository;
+    private final SongRepository songRepository;
+    private final SongSearchService songSearchService;
+    private final SuggestService suggestService;
+    private final EntityManager entityManager;
+    private final ChangeEventService changes;
 
-
+    @Transactional
     public Artist add(Artist artist) {
-        return repository.save(artist);
+        Artist saved = repository.save(artist);
+        changes.record(ChangeEvent.Type.ARTIST, saved.getId(), ChangeEvent.Operation.CREATED);
+        suggestService.addArtist(saved);
+        return saved;
     }
 
+    @Transactional(readOnly = true)
     public Optional<Artist> findById(Long id) {
         return repository.findById(id);
     }
 
+    @Transactional(readOnly = true)
+    public Optional<Artist> findByDni(String dni) {
+        return entityManager.unwrap(Session.class)
+                .bySimpleNaturalId(Artist.class)
+                .loadOptional(dni);
+    }
+
+    @Transactional(readOnly = true)
     public List<Artist> findAll() {
         return repository.findAll();
     }
 
+    @Transactional
     public Artist edit(Artist artist) {
-        return repository.save(artist);
+        Artist saved = repository.save(artist);
+        List<Long> songIds = songRepository.findIdsByArtistId(saved.getId());
+        songSearchService.reindex(songIds);
+        changes.record(ChangeEvent.Type.ARTIST, saved.getId(), ChangeEvent.Operation.UPDATED);
+        changes.recordAll(ChangeEvent.Type.SONG, songIds, ChangeEvent.Operation.UPDATED);
+        suggestService.addArtist(saved);
+        return saved;
     }
 
+    @Transactional
     public void delete(Artist artist) {
-        repository.delete(artist);
+        deleteById(artist.getId());
     }
 
+    @Transactional
     public void deleteById(Long id) {
-        repository.deleteById(id);
+        if (repository.existsById(id)) {
+            List<Long> songIds = songRepository.findIdsByArtistId(id);
+            songRepository.detachArtist(id);
+            repository.deleteById(id);
+            songSearchService.reindex(songIds);
+            changes.record(ChangeEvent.Type.ARTIST, id, ChangeEvent.Operation.DELETED);
+            changes.recordAll(ChangeEvent.Type.SONG, songIds, ChangeEvent.Operation.UPDATED);
+            suggestService.removeArtist(id);
+        }
     }
 
 }
@@ -0,0 +1,188 @@
+package com.salesianostriana.dam.trianafy.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.salesianostriana.dam.trianafy.dto.BulkImportResultDto;
+import com.salesianostriana.dam.trianafy.dto.CreateArtistDto;
+import com.salesianostriana.dam.trianafy.dto.CreateSongDto;
+import com.salesianostriana.dam.trianafy.dto.SongDtoConverter;
+import com.salesianostriana.dam.trianafy.model.Artist;
+import com.salesianostriana.dam.trianafy.model.ChangeEvent;
+import com.salesianostriana.dam.trianafy.model.Song;
+import com.salesianostriana.dam.trianafy.repos.ArtistRepository;
+import com.salesianostriana.dam.trianafy.repos.SongRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Service
+@RequiredArgsConstructor
+public class BulkImportService {
+
+    private final ObjectMapper objectMapper;
+    private final ArtistRepository artistRepository;
+    private final SongRepository songRepository;
+    private final SongDtoConverter songDtoConverter;
+    private final TransactionTemplate transactionTemplate;
+    private final EntityManager entityManager;
+    private final SuggestService suggestService;
+    private final SongViewCache songViewCache;
+    private final ChangeEventService changes;
+
+    @Value("${trianafy.bulk.chunk-size}")
+    private int chunkSize;
+
+    public BulkImportResultDto importSongs(InputStream in) throws IOException {
+        BulkImportResultDto result = new BulkImportResultDto();
+        read(in, CreateSongDto.class, result, this::saveSongs);
+        return result;
+    }
+
+    public BulkImportResultDto importArtists(InputStream in) throws IOException {
+        BulkImportResultDto result = new BulkImportResultDto();
+        read(in, CreateArtistDto.class, result, this::saveArtists);
+        return result;
+    }
+
+    private <T> void read(InputStream in, Class<T> type, BulkImportResultDto result,
+                          BiConsumer<List<Item<T>>, BulkImportResultDto> save) throws IOException {
+        List<Item<T>> chunk = new ArrayList<>(chunkSize);
+        long index = 0;
+
+        try (MappingIterator<T> it = objectMapper.readerFor(type).readValues(in)) {
+            while (true) {
+                try {
+                    if (!it.hasNextValue())
+                        break;
+                    chunk.add(new Item<>(index, it.nextValue()));
+                } catch (JsonMappingException e) {
+                    result.addError(index, e.getOriginalMessage());
+                } catch (JsonProcessingException e) {
+                    result.addError(index, "JSON mal formado: " + e.getOriginalMessage());
+                    break;
+                }
+                index++;
+
+                if (chunk.size() == chunkSize) {
+                    save.accept(chunk, result);
+                    chunk = new ArrayList<>(chunkSize);
+                }
+            }
+        }
+
+        if (!chunk.isEmpty())
+            save.accept(chunk, result);
+    }
+
+    private void saveSongs(List<Item<CreateSongDto>> chunk, BulkImportResultDto result) {
+        saveChunk(chunk, result, (items, outcome) -> {
+            Set<Long> artistIds = items.stream()
+                    .map(item -> item.value().getArtistId())
+                    .filter(Objects::nonNull)
+                    .collect(Collectors.toSet());
+            Map<Long, Artist> artists = artistRepository.findAllById(artistIds).stream()
+                    .collect(Collectors.toMap(Artist::getId, Function.identity()));
+
+            List<Song> songs = new ArrayList<>(items.size());
+            for (Item<CreateSongDto> item : items) {
+                Long artistId = item.value().getArtistId();
+                if (artistId == null) {
+                    outcome.addError(item.index(), "El artistId es obligatorio");
+                } else if (!artists.containsKey(artistId)) {
+                    outcome.addError(item.index(), "No existe el artista con id " + artistId);
+                } else {
+                    Song song = songDtoConverter.createSongDtoToSong(item.value());
+                    song.setArtist(artists.get(artistId));
+                    songs.add(song);
+                }
+            }
+            songRepository.saveAll(songs);
+            changes.recordAll(ChangeEvent.Type.SONG, songs.stream().map(Song::getId).toList(), ChangeEvent.Operation.CREATED);
+            songs.forEach(suggestService::addSong);
+            if (!songs.isEmpty())
+                songViewCache.invalidate();
+            outcome.setImported(songs.size());
+        });
+    }
+
+    private void saveArtists(List<Item<CreateArtistDto>> chunk, BulkImportResultDto result) {
+        saveChunk(chunk, result, (items, outcome) -> {
+            Set<String> dnis = items.stream()
+                    .map(item -> item.value().getDni())
+                    .filter(Objects::nonNull)
+                    .collect(Collectors.toSet());
+            Set<String> taken = new HashSet<>(dnis.isEmpty() ? Set.of() : artistRepository.findExistingDnis(dnis));
+
+            List<Artist> artists = new ArrayList<>(items.size());
+            for (Item<CreateArtistDto> item : items) {
+                CreateArtistDto dto = item.value();
+                if (dto.getDni() != null && !taken.add(dto.getDni())) {
+                    outcome.addError(item.index(), "Ya existe un artista con dni " + dto.getDni());
+                } else {
+                    artists.add(Artist.builder()
+                            .name(dto.getName())
+                            .dni(dto.getDni())
+                            .build());
+                }
+            }
+            artistRepository.saveAll(artists);
+            changes.recordAll(ChangeEvent.Type.ARTIST, artists.stream().map(Artist::getId).toList(), ChangeEvent.Operation.CREATED);
+            artists.forEach(suggestService::addArtist);
+            outcome.setImported(artists.size());
+        });
+    }
+
+    // The whole chunk goes in one transaction. If the database rejects it, each record is
+    // retried in its own transaction, so only the rows at fault are reported and the rest
+    // of the chunk is still imported. Entities are built inside the work, so a retry never
+    // reuses one that a rolled back attempt already gave an id.
+    private <T> void saveChunk(List<Item<T>> chunk, BulkImportResultDto result, ChunkWork<T> work) {
+        if (attempt(chunk, result, work) != null) {
+            for (Item<T> item : chunk) {
+                String failure = attempt(List.of(item), result, work);
+                if (failure != null)
+                    result.addError(item.index(), failure);
+            }
+        }
+    }
+
+    // Returns the database error, or null once the outcome has been merged into the result.
+    private <T> String attempt(List<Item<T>> items, BulkImportResultDto result, ChunkWork<T> work) {
+        BulkImportResultDto outcome = new BulkImportResultDto();
+        try {
+            transactionTemplate.executeWithoutResult(status -> work.save(items, outcome));
+            result.setImported(result.getImported() + outcome.getImported());
+            result.getErrors().addAll(outcome.getErrors());
+            return null;
+        } catch (DataAccessException | TransactionException e) {
+            return e.getMostSpecificCause().getMessage();
+        } finally {
+            entityManager.clear();
+        }
+    }
+
+    private interface ChunkWork<T> {
+        void save(List<Item<T>> items, BulkImportResultDto outcome);
+    }
+
+    private record Item<T>(long index, T value) {
+    }
+}
@@ -0,0 +1,108 @@
+package com.salesianostriana.dam.trianafy.service;
+
+import com.salesianostriana.dam.trianafy.dto.ChangeFeedDto;
+import com.salesianostriana.dam.trianafy.model.ChangeEvent;
+import com.salesianostriana.dam.trianafy.repos.ChangeEventRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+// Sequence ids are handed out before commit, so a later id can become visible
+// before an earlier one. The feed therefore only serves ids below the oldest one
+// still in flight in this instance; a consumer never skips an event it could
+// later miss. Several writer instances would need a commit-ordered sequence instead.
+@Service
+@RequiredArgsConstructor
+public class ChangeEventService {
+
+    private final ChangeEventRepository repository;
+    private final EntityManager entityManager;
+    private final TaskExecutor taskExecutor;
+
+    private final Object lock = new Object();
+    private final TreeSet<Long> inFlight = new TreeSet<>();
+    private long highestAllocated = -1;
+    private final ConcurrentLinkedQueue<Runnable> commitListeners = new ConcurrentLinkedQueue<>();
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void record(ChangeEvent.Type type, Long entityId, ChangeEvent.Operation operation) {
+        recordAll(type, List.of(entityId), operation);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordAll(ChangeEvent.Type type, Collection<Long> entityIds, ChangeEvent.Operation operation) {
+        if (entityIds.isEmpty())
+            return;
+        List<Long> ids = new ArrayList<>(entityIds.size());
+        synchronized (lock) {
+            for (Long entityId : entityIds) {
+                ChangeEvent event = new ChangeEvent(type, entityId, operation);
+                entityManager.persist(event);
+                ids.add(event.getId());
+                inFlight.add(event.getId());
+                highestAllocated = Math.max(highestAllocated, event.getId());
+            }
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                synchronized (lock) {
+                    ids.forEach(inFlight::remove);
+                }
+                if (status == STATUS_COMMITTED)
+                    notifyListeners();
+            }
+        });
+    }
+
+    // Reads from the primary: a replica may not have applied every event below the horizon yet.
+    @Transactional
+    public ChangeFeedDto findAfter(long since, int size) {
+        List<ChangeEvent> changes = repository.findByIdGreaterThanAndIdLessThanOrderByIdAsc(
+                since, horizon(), PageRequest.of(0, size));
+        long next = changes.isEmpty() ? since : changes.get(changes.size() - 1).getId();
+        return new ChangeFeedDto(changes, next);
+    }
+
+    // Highest sequence a consumer can safely resume from right now.
+    public long watermark() {
+        return horizon() - 1;
+    }
+
+    // Runs the listener once, off the writer's thread, after the next commit that recorded changes.
+    public void onNextCommit(Runnable listener) {
+        commitListeners.add(listener);
+    }
+
+    public void removeListener(Runnable listener) {
+        commitListeners.remove(listener);
+    }
+
+    private long horizon() {
+        synchronized (lock) {
+            if (!inFlight.isEmpty())
+                return inFlight.first();
+            if (highestAllocated < 0)
+                highestAllocated = repository.findMaxId().orElse(0L);
+            return highestAllocated + 1;
+        }
+    }
+
+    private void notifyListeners() {
+        Runnable listener;
+        while ((listener = commitListeners.poll()) != null)
+            taskExecutor.execute(listener);
+    }
+}
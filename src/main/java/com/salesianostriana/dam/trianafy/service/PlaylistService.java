@@ -1,45 +1,325 @@
 package com.salesianostriana.dam.trianafy.service;
 
 
+import com.salesianostriana.dam.trianafy.dto.GetPlaylistDto;
+import com.salesianostriana.dam.trianafy.dto.GetSongDto;
+import com.salesianostriana.dam.trianafy.dto.MoveSongDto;
+import com.salesianostriana.dam.trianafy.dto.PlaylistChangeDto;
+import com.salesianostriana.dam.trianafy.model.ChangeEvent;
 import com.salesianostriana.dam.trianafy.model.Playlist;
+import com.salesianostriana.dam.trianafy.model.PlaylistEntry;
 import com.salesianostriana.dam.trianafy.model.Song;
+import com.salesianostriana.dam.trianafy.repos.PlaylistEntryRepository;
 import com.salesianostriana.dam.trianafy.repos.PlaylistRepository;
 import com.salesianostriana.dam.trianafy.repos.SongRepository;
 import lombok.RequiredArgsConstructor;
+import org.hibernate.query.NativeQuery;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.JpaSort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import javax.persistence.EntityManager;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
 public class PlaylistService {
 
     private final PlaylistRepository repository;
+    private final PlaylistEntryRepository entryRepository;
+    private final SongRepository songRepository;
+    private final EntityManager entityManager;
+    private final ChangeEventService changes;
 
+    @Transactional
     public Playlist add(Playlist playlist) {
-        return repository.save(playlist);
+        Playlist saved = repository.save(playlist);
+        changes.record(ChangeEvent.Type.PLAYLIST, saved.getId(), ChangeEvent.Operation.CREATED);
+        return saved;
     }
 
+    @Transactional(readOnly = true)
     public Optional<Playlist> findById(Long id) {
         return repository.findById(id);
     }
 
+    @Transactional(readOnly = true)
     public List<Playlist> findAll() {
         return repository.findAll();
     }
 
+    public static final Set<String> SUMMARY_SORTS = Set.of("name", "numberSongs");
+
+    @Transactional(readOnly = true)
+    public Slice<GetPlaylistDto> findSummaries(int page, int size, String sortBy, Sort.Direction direction) {
+        Sort sort = "numberSongs".equals(sortBy)
+                ? JpaSort.unsafe(direction, "count(e)")
+                : Sort.by(direction, "name");
+        return repository.findSummaries(PageRequest.of(page, size, sort.and(Sort.by("id"))));
+    }
+
+    @Transactional(readOnly = true)
+    public Optional<Song> findSong(Long playlistId, Long songId) {
+        return entryRepository.findSongInPlaylist(playlistId, songId, PageRequest.of(0, 1)).stream().findFirst();
+    }
+
+    @Transactional(readOnly = true)
+    public List<GetSongDto> findSongsAfter(Long playlistId, long afterPosition, long afterEntryId, int limit) {
+        return entryRepository.findSongsAfter(playlistId, afterPosition, afterEntryId, PageRequest.of(0, limit));
+    }
+
+    @Transactional(readOnly = true)
+    public Slice<GetSongDto> findSongPage(Long playlistId, int page, int size) {
+        return entryRepository.findSongPage(playlistId, PageRequest.of(page, size));
+    }
+
+    @Transactional(readOnly = true)
+    public void streamSongs(Long playlistId, Consumer<GetSongDto> action) {
+        try (Stream<GetSongDto> songs = entryRepository.streamSongs(playlistId)) {
+            songs.forEach(action);
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public boolean existsById(Long id) {
+        return repository.existsById(id);
+    }
+
+    @Transactional
+    public Optional<Song> appendSong(Long playlistId, Long songId) {
+        return insertSong(playlistId, songId, null);
+    }
+
+    // A null index appends at the end of the playlist.
+    @Transactional
+    public Optional<Song> insertSong(Long playlistId, Long songId, Integer index) {
+        Optional<Playlist> playlist = repository.findForUpdateById(playlistId);
+        Optional<Song> song = songRepository.findById(songId);
+        if (playlist.isEmpty() || song.isEmpty())
+            return Optional.empty();
+
+        long position = positionsAt(playlistId, index, 1, -1L)[0];
+        entryRepository.save(new PlaylistEntry(playlist.get(), song.get(), position));
+        touch(playlist.get());
+        return song;
+    }
+
+    // Inserts the songs as a contiguous block; ids that are not songs are reported and skipped.
+    @Transactional
+    public Optional<PlaylistChangeDto> insertSongs(Long playlistId, List<Long> songIds, Integer index) {
+        Optional<Playlist> playlist = repository.findForUpdateById(playlistId);
+        if (playlist.isEmpty())
+            return Optional.empty();
+
+        Map<Long, Song> songs = songRepository.findAllById(songIds).stream()
+                .collect(Collectors.toMap(Song::getId, Function.identity()));
+        PlaylistChangeDto result = new PlaylistChangeDto();
+        List<Song> found = new ArrayList<>(songIds.size());
+        for (Long songId : songIds) {
+            Song song = songs.get(songId);
+            if (song == null)
+                result.getNotFound().add(songId);
+            else
+                found.add(song);
+        }
+        if (found.isEmpty())
+            return Optional.of(result);
+
+        long[] positions = positionsAt(playlistId, index, found.size(), -1L);
+        List<PlaylistEntry> entries = new ArrayList<>(found.size());
+        for (int i = 0; i < found.size(); i++)
+            entries.add(new PlaylistEntry(playlist.get(), found.get(i), positions[i]));
+        entryRepository.saveAll(entries);
+        touch(playlist.get());
+        result.setChanged(entries.size());
+        return Optional.of(result);
+    }
+
+    @Transactional
+    public boolean moveSong(Long playlistId, Long songId, int index) {
+        Optional<Playlist> playlist = repository.findForUpdateById(playlistId);
+        Optional<PlaylistEntry> entry = entryRepository.findFirstByPlaylistIdAndSongIdOrderByPositionAscIdAsc(playlistId, songId);
+        if (playlist.isEmpty() || entry.isEmpty())
+            return false;
+
+        move(playlistId, entry.get(), index);
+        touch(playlist.get());
+        return true;
+    }
+
+    // Applied in order, so each position refers to the playlist as left by the previous move.
+    @Transactional
+    public Optional<PlaylistChangeDto> moveSongs(Long playlistId, List<MoveSongDto> moves) {
+        Optional<Playlist> playlist = repository.findForUpdateById(playlistId);
+        if (playlist.isEmpty())
+            return Optional.empty();
+
+        PlaylistChangeDto result = new PlaylistChangeDto();
+        for (MoveSongDto m : moves) {
+            Optional<PlaylistEntry> entry = entryRepository.findFirstByPlaylistIdAndSongIdOrderByPositionAscIdAsc(playlistId, m.getSongId());
+            if (entry.isEmpty()) {
+                result.getNotFound().add(m.getSongId());
+                continue;
+            }
+            move(playlistId, entry.get(), Math.max(m.getPosition(), 0));
+            result.setChanged(result.getChanged() + 1);
+        }
+        if (result.getChanged() > 0)
+            touch(playlist.get());
+        return Optional.of(result);
+    }
+
+    // Removes only the first occurrence of the song, as List.remove did before entries.
+    @Transactional
+    public boolean removeSong(Long playlistId, Long songId) {
+        Optional<Playlist> playlist = repository.findForUpdateById(playlistId);
+        Optional<PlaylistEntry> entry = entryRepository.findFirstByPlaylistIdAndSongIdOrderByPositionAscIdAsc(playlistId, songId);
+        if (playlist.isEmpty() || entry.isEmpty())
+            return false;
+        entryRepository.deleteByIdIn(List.of(entry.get().getId()));
+        touch(playlist.get());
+        return true;
+    }
+
+    // Each listed id removes one occurrence, the first ones in playlist order, so listing
+    // a song twice removes two of its copies. A single delete either way.
+    @Transactional
+    public Optional<PlaylistChangeDto> removeSongs(Long playlistId, Collection<Long> songIds) {
+        Optional<Playlist> playlist = repository.findForUpdateById(playlistId);
+        if (playlist.isEmpty())
+            return Optional.empty();
+
+        Map<Long, Deque<Long>> entriesBySong = new HashMap<>();
+        for (Object[] row : entryRepository.findEntryIdsBySongIdIn(playlistId, songIds))
+            entriesBySong.computeIfAbsent((Long) row[1], id -> new ArrayDeque<>()).add((Long) row[0]);
+
+        PlaylistChangeDto result = new PlaylistChangeDto();
+        List<Long> entryIds = new ArrayList<>(songIds.size());
+        for (Long songId : songIds) {
+            Deque<Long> entries = entriesBySong.get(songId);
+            if (entries == null || entries.isEmpty()) {
+                if (!result.getNotFound().contains(songId))
+                    result.getNotFound().add(songId);
+            } else {
+                entryIds.add(entries.poll());
+            }
+        }
+        if (!entryIds.isEmpty()) {
+            result.setChanged(entryRepository.deleteByIdIn(entryIds));
+            touch(playlist.get());
+        }
+        return Optional.of(result);
+    }
+
+    @Transactional
     public Playlist edit(Playlist playlist) {
-        return repository.save(playlist);
+        Playlist saved = repository.save(playlist);
+        changes.record(ChangeEvent.Type.PLAYLIST, saved.getId(), ChangeEvent.Operation.UPDATED);
+        return saved;
     }
 
+    @Transactional
     public void delete(Playlist playlist) {
-        repository.delete(playlist);
+        deleteById(playlist.getId());
     }
 
+    @Transactional
     public void deleteById(Long id) {
+        entryRepository.deleteByPlaylistId(id);
         repository.deleteById(id);
+        changes.record(ChangeEvent.Type.PLAYLIST, id, ChangeEvent.Operation.DELETED);
+    }
+
+    // Bumps the version and Last-Modified of the playlist after a change to its entries.
+    // Callers load the playlist with findForUpdateById, so concurrent changes queue on the
+    // row instead of failing the version check at commit.
+    private void touch(Playlist playlist) {
+        playlist.setLastModified(Instant.now());
+        changes.record(ChangeEvent.Type.PLAYLIST, playlist.getId(), ChangeEvent.Operation.UPDATED);
     }
 
+    private void move(Long playlistId, PlaylistEntry entry, int index) {
+        long position = positionsAt(playlistId, index, 1, entry.getId())[0];
+        entryRepository.updatePosition(entry.getId(), position);
+    }
+
+    // Positions for a block of entries placed at the given index (null appends),
+    // ignoring the entry being moved.
+    private long[] positionsAt(Long playlistId, Integer index, int count, Long excludedEntryId) {
+        long[] positions = new long[count];
+        if (index == null || index > 0) {
+            List<Long> neighbours = index == null ? List.of() : neighbours(playlistId, index, excludedEntryId);
+            if (neighbours.size() < 2) {
+                long last = neighbours.isEmpty()
+                        ? entryRepository.findMaxPosition(playlistId).orElse(0L)
+                        : neighbours.get(0);
+                for (int i = 0; i < count; i++)
+                    positions[i] = last + (i + 1) * PlaylistEntry.STEP;
+                return positions;
+            }
+            long previous = neighbours.get(0);
+            long gap = neighbours.get(1) - previous;
+            if (gap > count) {
+                for (int i = 0; i < count; i++)
+                    positions[i] = previous + gap * (i + 1) / (count + 1);
+                return positions;
+            }
+            renumber(playlistId, index, count, excludedEntryId);
+            for (int i = 0; i < count; i++)
+                positions[i] = (index + i + 1) * PlaylistEntry.STEP;
+            return positions;
+        }
+
+        List<Long> first = neighbours(playlistId, 0, excludedEntryId);
+        long next = first.isEmpty() ? (count + 1) * PlaylistEntry.STEP : first.get(0);
+        for (int i = 0; i < count; i++)
+            positions[i] = next - (count - i) * PlaylistEntry.STEP;
+        return positions;
+    }
+
+    private List<Long> neighbours(Long playlistId, int index, Long excludedEntryId) {
+        return entityManager.createQuery("select e.position from PlaylistEntry e " +
+                        "where e.playlist.id = :playlistId and e.id <> :excludedEntryId order by e.position", Long.class)
+                .setParameter("playlistId", playlistId)
+                .setParameter("excludedEntryId", excludedEntryId)
+                .setFirstResult(Math.max(index - 1, 0))
+                .setMaxResults(index == 0 ? 1 : 2)
+                .getResultList();
+    }
+
+    // Only needed once inserts at the same spot exhaust the gap between two entries.
+    // Leaves a hole of holeSize free slots at holeIndex. One statement however long the
+    // playlist is; only the playlist_entry cache region is invalidated.
+    private void renumber(Long playlistId, int holeIndex, int holeSize, Long excludedEntryId) {
+        entityManager.createNativeQuery("merge into playlist_entry t using (" +
+                        "select id, row_number() over (order by position, id) - 1 as idx from playlist_entry " +
+                        "where playlist_id = :playlistId and id <> :excludedEntryId) s on t.id = s.id " +
+                        "when matched then update set position = " +
+                        "(s.idx + 1 + case when s.idx >= :holeIndex then :holeSize else 0 end) * :step")
+                .setParameter("playlistId", playlistId)
+                .setParameter("excludedEntryId", excludedEntryId)
+                .setParameter("holeIndex", holeIndex)
+                .setParameter("holeSize", holeSize)
+                .setParameter("step", PlaylistEntry.STEP)
+                .unwrap(NativeQuery.class)
+                .addSynchronizedEntityClass(PlaylistEntry.class)
+                .executeUpdate();
+    }
 
 }
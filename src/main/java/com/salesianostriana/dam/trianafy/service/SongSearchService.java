@@ -0,0 +1,123 @@
+package com.salesianostriana.dam.trianafy.service;
+
+import com.salesianostriana.dam.trianafy.dto.GetSongDto;
+import com.salesianostriana.dam.trianafy.dto.SearchIndexStatusDto;
+import com.salesianostriana.dam.trianafy.model.Song;
+import com.salesianostriana.dam.trianafy.repos.SongRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.search.mapper.orm.Search;
+import org.hibernate.search.mapper.orm.work.SearchIndexingPlan;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class SongSearchService {
+
+    private final EntityManager entityManager;
+    private final EntityManagerFactory entityManagerFactory;
+    private final SongRepository songRepository;
+
+    @Value("${trianafy.search.rebuild-if-empty}")
+    private boolean rebuildIfEmpty;
+
+    // Guarded by this.
+    private SearchIndexStatusDto status = SearchIndexStatusDto.builder().build();
+    private CompletionStage<?> running;
+
+    @Transactional(readOnly = true)
+    public List<GetSongDto> search(String text, int offset, int limit) {
+        return Search.session(entityManager).search(Song.class)
+                .select(f -> f.composite(
+                        values -> GetSongDto.builder()
+                                .id((Long) values.get(0))
+                                .title((String) values.get(1))
+                                .artistName((String) values.get(2))
+                                .album((String) values.get(3))
+                                .year((String) values.get(4))
+                                .build(),
+                        f.id(Long.class),
+                        f.field("title", String.class),
+                        f.field("artist.name", String.class),
+                        f.field("album", String.class),
+                        f.field("year", String.class)))
+                .where(f -> f.bool()
+                        .should(f.match().fields("title", "album", "artist.name").matching(text).boost(4.0f))
+                        .should(f.match().fields("title_prefix", "artist.name_prefix").matching(text).boost(2.0f))
+                        .should(f.match().fields("title", "album", "artist.name").matching(text).fuzzy(1)))
+                .fetchHits(offset, limit);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void reindex(Collection<Long> songIds) {
+        SearchIndexingPlan plan = Search.session(entityManager).indexingPlan();
+        songRepository.findAllById(songIds).forEach(plan::addOrUpdate);
+    }
+
+    // Starts a rebuild unless one is already running, in which case that one is returned.
+    // A mass indexer that fails to start is reported like one that fails while running,
+    // so the status never stays running with nothing behind it.
+    public synchronized CompletionStage<?> rebuild() {
+        if (status.isRunning())
+            return running;
+        status = SearchIndexStatusDto.builder().running(true).startedAt(Instant.now()).build();
+        try {
+            running = Search.mapping(entityManagerFactory).scope(Song.class).massIndexer()
+                    .threadsToLoadObjects(4)
+                    .batchSizeToLoadObjects(500)
+                    .start()
+                    .whenComplete((result, error) -> finished(error));
+        } catch (RuntimeException e) {
+            finished(e);
+            running = CompletableFuture.failedFuture(e);
+        }
+        return running;
+    }
+
+    public synchronized SearchIndexStatusDto status() {
+        return status;
+    }
+
+    // A file-system index (prod) that is missing or was wiped while the database
+    // kept its rows would otherwise stay empty until someone calls the endpoint.
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void rebuildIfEmpty() {
+        if (!rebuildIfEmpty)
+            return;
+        long indexed = Search.session(entityManager).search(Song.class)
+                .where(f -> f.matchAll())
+                .fetchTotalHitCount();
+        if (indexed == 0 && songRepository.count() > 0) {
+            log.info("Search index is empty, rebuilding it from the database");
+            rebuild();
+        }
+    }
+
+    private synchronized void finished(Throwable error) {
+        status = SearchIndexStatusDto.builder()
+                .startedAt(status.getStartedAt())
+                .finishedAt(Instant.now())
+                .error(error == null ? null : error.getMessage())
+                .build();
+        if (error == null)
+            log.info("Search index rebuilt in {}", Duration.between(status.getStartedAt(), status.getFinishedAt()));
+        else
+            log.error("Search index rebuild failed", error);
+    }
+}
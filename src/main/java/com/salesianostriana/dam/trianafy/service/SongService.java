@@ -1,43 +1,110 @@
 package com.salesianostriana.dam.trianafy.service;
 
 
-import com.salesianostriana.dam.trianafy.model.Artist;
+import com.salesianostriana.dam.trianafy.model.ChangeEvent;
 import com.salesianostriana.dam.trianafy.model.Song;
+import com.salesianostriana.dam.trianafy.repos.PlaylistEntryRepository;
+import com.salesianostriana.dam.trianafy.repos.PlaylistRepository;
 import com.salesianostriana.dam.trianafy.repos.SongRepository;
 import lombok.RequiredArgsConstructor;
+import org.hibernate.Hibernate;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import javax.persistence.EntityManager;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
 public class SongService {
 
+    private static final int STREAM_CLEAR_INTERVAL = 500;
+
     private final SongRepository repository;
+    private final PlaylistRepository playlistRepository;
+    private final PlaylistEntryRepository playlistEntryRepository;
+    private final EntityManager entityManager;
+    private final SuggestService suggestService;
+    private final SongViewCache viewCache;
+    private final ChangeEventService changes;
 
+    @Transactional
     public Song add(Song song) {
-        return repository.save(song);
+        Song saved = repository.save(song);
+        changes.record(ChangeEvent.Type.SONG, saved.getId(), ChangeEvent.Operation.CREATED);
+        suggestService.addSong(saved);
+        viewCache.invalidate();
+        return saved;
     }
 
+    @Transactional(readOnly = true)
     public Optional<Song> findById(Long id) {
         return repository.findById(id);
     }
 
+    // A cached song is read through findById so that it and its artist come from the
+    // second-level cache; an uncached one is fetched with its artist in a single join.
+    @Transactional(readOnly = true)
+    public Optional<Song> findWithArtistById(Long id) {
+        if (!entityManager.getEntityManagerFactory().getCache().contains(Song.class, id))
+            return repository.findWithArtistById(id);
+        Optional<Song> song = repository.findById(id);
+        song.map(Song::getArtist).ifPresent(Hibernate::initialize);
+        return song;
+    }
+
+    @Transactional(readOnly = true)
     public List<Song> findAll() {
         return repository.findAll();
     }
 
+    @Transactional(readOnly = true)
+    public List<Song> findPage(long afterId, int size) {
+        return repository.findByIdGreaterThanOrderByIdAsc(afterId, PageRequest.of(0, size));
+    }
+
+    @Transactional(readOnly = true)
+    public void streamAll(Consumer<Song> action) {
+        try (Stream<Song> songs = repository.streamAll()) {
+            Iterator<Song> it = songs.iterator();
+            int rows = 0;
+            while (it.hasNext()) {
+                action.accept(it.next());
+                if (++rows % STREAM_CLEAR_INTERVAL == 0)
+                    entityManager.clear();
+            }
+        }
+    }
+
+    @Transactional
     public Song edit(Song song) {
-        return repository.save(song);
+        Song saved = repository.save(song);
+        changes.record(ChangeEvent.Type.SONG, saved.getId(), ChangeEvent.Operation.UPDATED);
+        suggestService.addSong(saved);
+        viewCache.invalidate();
+        return saved;
     }
 
+    @Transactional
     public void delete(Song song) {
-        repository.delete(song);
+        deleteById(song.getId());
     }
 
+    @Transactional
     public void deleteById(Long id) {
+        List<Long> playlistIds = playlistEntryRepository.findPlaylistIdsBySongId(id);
+        playlistRepository.touchBySongId(id);
+        playlistEntryRepository.deleteBySongId(id);
         repository.deleteById(id);
+        changes.record(ChangeEvent.Type.SONG, id, ChangeEvent.Operation.DELETED);
+        changes.recordAll(ChangeEvent.Type.PLAYLIST, playlistIds, ChangeEvent.Operation.UPDATED);
+        suggestService.removeSong(id);
+        viewCache.invalidate();
     }
 
 }
@@ -0,0 +1,151 @@
+package com.salesianostriana.dam.trianafy.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.salesianostriana.dam.trianafy.model.Song;
+import com.salesianostriana.dam.trianafy.repos.SongRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+@Service
+public class SongViewCache {
+
+    private final ObjectMapper objectMapper;
+    private final SongRepository repository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final boolean enabled;
+    private final int maxSize;
+
+    private final AtomicLong version = new AtomicLong();
+    private final Map<Class<?>, ObjectWriter> writers = new ConcurrentHashMap<>();
+    private final Map<Class<?>, Entry> entries = new ConcurrentHashMap<>();
+
+    public SongViewCache(ObjectMapper objectMapper, SongRepository repository,
+                         PlatformTransactionManager transactionManager,
+                         @Value("${trianafy.song-view-cache.enabled}") boolean enabled,
+                         @Value("${trianafy.song-view-cache.max-size}") DataSize maxSize) {
+        this.objectMapper = objectMapper;
+        this.repository = repository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.enabled = enabled;
+        this.maxSize = Math.toIntExact(maxSize.toBytes());
+    }
+
+    // Disabled, or when the view outgrows max-size, the songs go straight from the cursor
+    // to the response without being buffered.
+    public void writeAll(Class<?> view, OutputStream out) throws IOException {
+        Optional<byte[]> cached = enabled ? findAll(view) : Optional.empty();
+        if (cached.isPresent()) {
+            out.write(cached.get());
+            return;
+        }
+        readOnlyTransaction.executeWithoutResult(status -> serialize(view, out));
+    }
+
+    // Concurrent misses for the same version wait on the first one's future instead of
+    // each reading the whole table. A view over max-size is remembered as empty until the
+    // next invalidation, so it is not rebuilt on every request just to be thrown away.
+    public Optional<byte[]> findAll(Class<?> view) {
+        long current = version.get();
+        Entry entry = entries.get(view);
+        if (entry == null || entry.version() != current) {
+            Entry mine = new Entry(current, new CompletableFuture<>());
+            entry = entries.compute(view, (v, existing) ->
+                    existing != null && existing.version() >= current ? existing : mine);
+            if (entry == mine)
+                build(view, mine);
+        }
+        try {
+            return Optional.ofNullable(entry.bytes().join());
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+    }
+
+    // Runs once the write is committed, so a reader can never cache the state from before
+    // the commit under the version that follows it, and a rollback keeps the cache.
+    public void invalidate() {
+        AfterCommit.run(() -> {
+            version.incrementAndGet();
+            entries.clear();
+        });
+    }
+
+    private void build(Class<?> view, Entry entry) {
+        try {
+            BoundedOutputStream out = new BoundedOutputStream(maxSize);
+            readOnlyTransaction.executeWithoutResult(status -> serialize(view, out));
+            entry.bytes().complete(out.toByteArray());
+        } catch (RuntimeException e) {
+            if (e instanceof UncheckedIOException && e.getCause() instanceof TooLarge) {
+                entry.bytes().complete(null);
+                return;
+            }
+            entries.remove(view, entry);
+            entry.bytes().completeExceptionally(e);
+        }
+    }
+
+    // The view only carries title, album and year, so it is read as a projection: no artist
+    // join, and nothing enters the persistence context.
+    private void serialize(Class<?> view, OutputStream out) {
+        ObjectWriter writer = writers.computeIfAbsent(view, v -> objectMapper.writerWithView(v).forType(Song.class));
+        try (Stream<Song> songs = repository.streamViews(); SequenceWriter sequence = writer.writeValuesAsArray(out)) {
+            Iterator<Song> it = songs.iterator();
+            while (it.hasNext())
+                sequence.write(it.next());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private record Entry(long version, CompletableFuture<byte[]> bytes) {
+    }
+
+    private static class TooLarge extends IOException {
+    }
+
+    private static class BoundedOutputStream extends OutputStream {
+
+        private final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        private final int maxSize;
+
+        BoundedOutputStream(int maxSize) {
+            this.maxSize = maxSize;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            if (buffer.size() + len > maxSize)
+                throw new TooLarge();
+            buffer.write(b, off, len);
+        }
+
+        byte[] toByteArray() {
+            return buffer.toByteArray();
+        }
+    }
+}
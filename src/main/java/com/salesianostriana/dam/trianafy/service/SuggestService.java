@@ -0,0 +1,192 @@
+package com.salesianostriana.dam.trianafy.service;
+
+import com.salesianostriana.dam.trianafy.dto.SuggestionDto;
+import com.salesianostriana.dam.trianafy.model.Artist;
+import com.salesianostriana.dam.trianafy.model.Song;
+import com.salesianostriana.dam.trianafy.repos.ArtistRepository;
+import com.salesianostriana.dam.trianafy.repos.SongRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+@Service
+@RequiredArgsConstructor
+public class SuggestService {
+
+    public static final String SONG = "song";
+    public static final String ARTIST = "artist";
+
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern SPACES = Pattern.compile("\\s+");
+    private static final char KEY_SEPARATOR = '\u0000';
+    // Prefixes are indexed up to this length; longer ones are checked against the text.
+    private static final int MAX_PREFIX = 8;
+
+    // Better matches first: the whole text starting with the prefix beats a later word
+    // doing so, then shorter texts (closer to what was typed), then alphabetical.
+    private static final Comparator<Term> RANK = Comparator.comparingInt(Term::word)
+            .thenComparingInt(term -> term.suggestion().getText().length())
+            .thenComparing(term -> term.suggestion().getText())
+            .thenComparing(term -> term.suggestion().getType())
+            .thenComparing(term -> term.suggestion().getId());
+
+    private final SongRepository songRepository;
+    private final ArtistRepository artistRepository;
+
+    // Every word start of every text, ranked, under each of its first MAX_PREFIX prefixes.
+    private final Map<String, NavigableSet<Term>> termsByPrefix = new ConcurrentHashMap<>();
+    private final Map<String, List<Term>> termsByEntity = new ConcurrentHashMap<>();
+
+    // Entities written while a rebuild is running; the rebuild may have read them
+    // before the write, so it must not overwrite what the write left. Guarded by this.
+    private Set<String> writtenDuringRebuild;
+    private final Object rebuildLock = new Object();
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        synchronized (rebuildLock) {
+            synchronized (this) {
+                writtenDuringRebuild = new HashSet<>();
+            }
+            try {
+                try (Stream<Object[]> songs = songRepository.streamTitles()) {
+                    songs.forEach(row -> load(SONG, (Long) row[0], (String) row[1]));
+                }
+                try (Stream<Object[]> artists = artistRepository.streamNames()) {
+                    artists.forEach(row -> load(ARTIST, (Long) row[0], (String) row[1]));
+                }
+            } finally {
+                synchronized (this) {
+                    writtenDuringRebuild = null;
+                }
+            }
+        }
+    }
+
+    public void addSong(Song song) {
+        Long id = song.getId();
+        String title = song.getTitle();
+        AfterCommit.run(() -> write(SONG, id, title));
+    }
+
+    public void addArtist(Artist artist) {
+        Long id = artist.getId();
+        String name = artist.getName();
+        AfterCommit.run(() -> write(ARTIST, id, name));
+    }
+
+    public void removeSong(Long id) {
+        AfterCommit.run(() -> write(SONG, id, null));
+    }
+
+    public void removeArtist(Long id) {
+        AfterCommit.run(() -> write(ARTIST, id, null));
+    }
+
+    // Candidates come out of the prefix's set already ranked, so the scan stops as soon
+    // as limit distinct suggestions are found, however many texts share the prefix.
+    public List<SuggestionDto> suggest(String prefix, int limit) {
+        String text = normalize(prefix);
+        if (text.isEmpty())
+            return List.of();
+        boolean exact = text.length() <= MAX_PREFIX;
+        NavigableSet<Term> candidates = termsByPrefix.get(exact ? text : text.substring(0, MAX_PREFIX));
+        if (candidates == null)
+            return List.of();
+
+        Set<SuggestionDto> found = new LinkedHashSet<>();
+        for (Term term : candidates) {
+            if (found.size() == limit)
+                break;
+            if (exact || term.normalized().startsWith(text, term.start()))
+                found.add(term.suggestion());
+        }
+        return new ArrayList<>(found);
+    }
+
+    private synchronized void write(String type, Long id, String text) {
+        if (writtenDuringRebuild != null)
+            writtenDuringRebuild.add(type + KEY_SEPARATOR + id);
+        if (text == null)
+            remove(type, id);
+        else
+            put(type, id, text);
+    }
+
+    private synchronized void load(String type, Long id, String text) {
+        if (!writtenDuringRebuild.contains(type + KEY_SEPARATOR + id))
+            put(type, id, text);
+    }
+
+    private void put(String type, Long id, String text) {
+        remove(type, id);
+        String normalized = normalize(text);
+        if (id == null || normalized.isEmpty())
+            return;
+
+        SuggestionDto suggestion = new SuggestionDto(type, id, text);
+        List<Term> added = new ArrayList<>();
+        int word = 0;
+        for (int start = 0; start >= 0; start = nextWord(normalized, start)) {
+            Term term = new Term(suggestion, normalized, start, word++);
+            for (String key : prefixes(term))
+                termsByPrefix.computeIfAbsent(key, k -> new ConcurrentSkipListSet<>(RANK)).add(term);
+            added.add(term);
+        }
+        termsByEntity.put(type + KEY_SEPARATOR + id, added);
+    }
+
+    private void remove(String type, Long id) {
+        List<Term> removed = termsByEntity.remove(type + KEY_SEPARATOR + id);
+        if (removed == null)
+            return;
+        for (Term term : removed)
+            for (String key : prefixes(term))
+                termsByPrefix.computeIfPresent(key, (k, set) -> {
+                    set.remove(term);
+                    return set.isEmpty() ? null : set;
+                });
+    }
+
+    private static List<String> prefixes(Term term) {
+        int end = Math.min(term.normalized().length(), term.start() + MAX_PREFIX);
+        List<String> keys = new ArrayList<>(end - term.start());
+        for (int i = term.start() + 1; i <= end; i++)
+            keys.add(term.normalized().substring(term.start(), i));
+        return keys;
+    }
+
+    private static int nextWord(String text, int from) {
+        int space = text.indexOf(' ', from);
+        return space < 0 ? -1 : space + 1;
+    }
+
+    static String normalize(String text) {
+        if (text == null)
+            return "";
+        String folded = MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("");
+        return SPACES.matcher(folded.toLowerCase(Locale.ROOT)).replaceAll(" ").trim();
+    }
+
+    // normalized is shared by all the terms of a text; start is where this word begins in it.
+    private record Term(SuggestionDto suggestion, String normalized, int start, int word) {
+    }
+}
@@ -0,0 +1,96 @@
+package com.salesianostriana.dam.trianafy.service;
+
+import com.salesianostriana.dam.trianafy.dto.ChangeFeedDto;
+import com.salesianostriana.dam.trianafy.dto.SyncArtistDto;
+import com.salesianostriana.dam.trianafy.dto.SyncDto;
+import com.salesianostriana.dam.trianafy.dto.SyncPlaylistDto;
+import com.salesianostriana.dam.trianafy.dto.SyncSongDto;
+import com.salesianostriana.dam.trianafy.dto.TombstoneDto;
+import com.salesianostriana.dam.trianafy.model.ChangeEvent;
+import com.salesianostriana.dam.trianafy.repos.ArtistRepository;
+import com.salesianostriana.dam.trianafy.repos.PlaylistEntryRepository;
+import com.salesianostriana.dam.trianafy.repos.PlaylistRepository;
+import com.salesianostriana.dam.trianafy.repos.SongRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+// Collapses a page of outbox events to one entry per entity: its current row, or a
+// tombstone when the last event was a delete. Runs on the primary so the rows are
+// never older than the events that point at them.
+@Service
+@RequiredArgsConstructor
+public class SyncService {
+
+    private final ChangeEventService changes;
+    private final ArtistRepository artistRepository;
+    private final SongRepository songRepository;
+    private final PlaylistRepository playlistRepository;
+    private final PlaylistEntryRepository entryRepository;
+
+    public long watermark() {
+        return changes.watermark();
+    }
+
+    @Transactional
+    public SyncDto changesSince(long since, int size) {
+        ChangeFeedDto feed = changes.findAfter(since, size);
+
+        Map<ChangeEvent.Type, Map<Long, ChangeEvent>> latest = new EnumMap<>(ChangeEvent.Type.class);
+        for (ChangeEvent event : feed.getChanges())
+            latest.computeIfAbsent(event.getEntityType(), t -> new LinkedHashMap<>()).put(event.getEntityId(), event);
+
+        SyncDto result = new SyncDto();
+        result.setNext(feed.getNext());
+        result.setHasMore(feed.getChanges().size() == size);
+        latest.forEach((type, events) -> {
+            List<Long> live = new ArrayList<>();
+            events.values().forEach(event -> {
+                if (event.getOperation() == ChangeEvent.Operation.DELETED)
+                    result.getDeleted().add(new TombstoneDto(type, event.getEntityId(), event.getOccurredAt()));
+                else
+                    live.add(event.getEntityId());
+            });
+            // Rows deleted after this page are skipped; their tombstone comes on a later page.
+            if (!live.isEmpty()) {
+                switch (type) {
+                    case ARTIST -> result.getArtists().addAll(artists(live));
+                    case SONG -> result.getSongs().addAll(songs(live));
+                    case PLAYLIST -> result.getPlaylists().addAll(playlists(live));
+                }
+            }
+        });
+        return result;
+    }
+
+    private List<SyncArtistDto> artists(List<Long> ids) {
+        return artistRepository.findAllById(ids).stream()
+                .map(a -> new SyncArtistDto(a.getId(), a.getName(), a.getDni(), a.getLastModified()))
+                .toList();
+    }
+
+    // The artist id is read from the proxy, so the artists themselves are not loaded.
+    private List<SyncSongDto> songs(List<Long> ids) {
+        return songRepository.findAllById(ids).stream()
+                .map(s -> new SyncSongDto(s.getId(), s.getTitle(), s.getAlbum(), s.getYear(),
+                        s.getArtist() == null ? null : s.getArtist().getId(), s.getLastModified()))
+                .toList();
+    }
+
+    private List<SyncPlaylistDto> playlists(List<Long> ids) {
+        Map<Long, List<Long>> songIds = entryRepository.findSongIdsByPlaylistIdIn(ids).stream()
+                .collect(Collectors.groupingBy(row -> (Long) row[0], LinkedHashMap::new,
+                        Collectors.mapping(row -> (Long) row[1], Collectors.toList())));
+        return playlistRepository.findAllById(ids).stream()
+                .map(p -> new SyncPlaylistDto(p.getId(), p.getName(), p.getDescription(),
+                        songIds.getOrDefault(p.getId(), List.of()), p.getLastModified()))
+                .toList();
+    }
+}
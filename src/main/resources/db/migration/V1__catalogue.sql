@@ -0,0 +1,75 @@
+-- Sequences step by 50 to match the allocationSize of the entity id generators.
+create sequence artist_seq start with 1 increment by 50;
+create sequence song_seq start with 1 increment by 50;
+create sequence playlist_seq start with 1 increment by 50;
+create sequence playlist_entry_seq start with 1 increment by 50;
+create sequence change_event_seq start with 1 increment by 50;
+
+create table artist (
+    id bigint not null,
+    name varchar(255),
+    dni varchar(255),
+    version bigint,
+    last_modified timestamp,
+    primary key (id)
+);
+
+create table song (
+    id bigint not null,
+    title varchar(255),
+    album varchar(255),
+    year_of_song varchar(255),
+    artist_id bigint,
+    version bigint,
+    last_modified timestamp,
+    primary key (id)
+);
+
+create table playlist (
+    id bigint not null,
+    name varchar(255),
+    description varchar(255),
+    version bigint,
+    last_modified timestamp,
+    primary key (id)
+);
+
+create table playlist_entry (
+    id bigint not null,
+    playlist_id bigint not null,
+    song_id bigint not null,
+    position bigint not null,
+    primary key (id)
+);
+
+create table change_event (
+    id bigint not null,
+    entity_type varchar(16) not null,
+    entity_id bigint not null,
+    operation varchar(16) not null,
+    occurred_at timestamp not null,
+    primary key (id)
+);
+
+-- Natural id lookups (Session.bySimpleNaturalId) and the bulk import duplicate check.
+create unique index ux_artist_dni on artist (dni);
+
+-- Songs by artist (detach on artist delete, reindex), and title/album lookups.
+create index ix_song_artist on song (artist_id);
+create index ix_song_title on song (title);
+create index ix_song_album on song (album);
+
+-- Playlist in order (covering, so the song ids come straight from the index), song-in-playlist
+-- checks, and playlists containing a song. H2 only reuses an index for a foreign key when its
+-- columns match exactly, so fk_playlist_entry_playlist gets its own single-column index.
+create index ix_playlist_entry_playlist on playlist_entry (playlist_id);
+create index ix_playlist_entry_playlist_position on playlist_entry (playlist_id, position, song_id);
+create index ix_playlist_entry_playlist_song on playlist_entry (playlist_id, song_id);
+create index ix_playlist_entry_song on playlist_entry (song_id);
+
+create index ix_change_event_entity on change_event (entity_type, entity_id);
+
+-- Foreign keys last, so they reuse the exact-match indexes above instead of creating their own.
+alter table song add constraint fk_song_artist foreign key (artist_id) references artist (id);
+alter table playlist_entry add constraint fk_playlist_entry_playlist foreign key (playlist_id) references playlist (id);
+alter table playlist_entry add constraint fk_playlist_entry_song foreign key (song_id) references song (id);
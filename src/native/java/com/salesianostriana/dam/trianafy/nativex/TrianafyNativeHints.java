@@ -0,0 +1,42 @@
+package com.salesianostriana.dam.trianafy.nativex;
+
+import com.salesianostriana.dam.trianafy.dto.*;
+import com.salesianostriana.dam.trianafy.model.Artist;
+import com.salesianostriana.dam.trianafy.model.ChangeEvent;
+import com.salesianostriana.dam.trianafy.model.Playlist;
+import com.salesianostriana.dam.trianafy.model.PlaylistEntry;
+import com.salesianostriana.dam.trianafy.model.Song;
+import com.salesianostriana.dam.trianafy.repos.EntityVersion;
+import com.salesianostriana.dam.trianafy.views.View;
+import org.springframework.aop.SpringProxy;
+import org.springframework.core.DecoratingProxy;
+import org.springframework.data.projection.TargetAware;
+import org.springframework.nativex.hint.JdkProxyHint;
+import org.springframework.nativex.hint.NativeHint;
+import org.springframework.nativex.hint.ResourceHint;
+import org.springframework.nativex.hint.TypeAccess;
+import org.springframework.nativex.hint.TypeHint;
+import org.springframework.nativex.type.NativeConfiguration;
+
+// Reflection the native image cannot infer: Hibernate and Jackson reach the entities
+// and DTOs reflectively, and the version projection is a JDK proxy. The entities are
+// bytecode-enhanced at build time (see the native profile), so no runtime proxies.
+@NativeHint(
+		types = @TypeHint(
+				types = {
+						Artist.class, Song.class, Playlist.class, PlaylistEntry.class,
+						ChangeEvent.class, ChangeEvent.Type.class, ChangeEvent.Operation.class,
+						GetSongDto.class, GetPlaylistDto.class, CreateSongDto.class, CreatePlaylistDto.class,
+						CursorPageDto.class, MoveSongDto.class, PlaylistSongsDto.class, PlaylistChangeDto.class,
+						BulkImportResultDto.class, BulkImportErrorDto.class, CacheRegionStatsDto.class, SuggestionDto.class,
+						ChangeFeedDto.class, SyncDto.class, SyncArtistDto.class, SyncSongDto.class, SyncPlaylistDto.class,
+						TombstoneDto.class, View.class, View.Base.class
+				},
+				access = {TypeAccess.DECLARED_CONSTRUCTORS, TypeAccess.DECLARED_FIELDS, TypeAccess.DECLARED_METHODS}),
+		jdkProxies = @JdkProxyHint(types = {
+				EntityVersion.class, TargetAware.class, SpringProxy.class, DecoratingProxy.class
+		}),
+		resources = @ResourceHint(patterns = {"db/migration/.*\\.sql", "application\\.conf"})
+)
+public class TrianafyNativeHints implements NativeConfiguration {
+}
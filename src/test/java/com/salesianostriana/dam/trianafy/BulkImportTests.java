@@ -0,0 +1,76 @@
+package com.salesianostriana.dam.trianafy;
+
+import com.salesianostriana.dam.trianafy.model.Artist;
+import com.salesianostriana.dam.trianafy.repos.ArtistRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class BulkImportTests {
+
+	@Autowired
+	private MockMvc mvc;
+
+	@Autowired
+	private ArtistRepository artistRepository;
+
+	@Test
+	void rowRejectedByTheDatabaseDoesNotSinkItsChunk() throws Exception {
+		String tooLong = "x".repeat(300);
+		mvc.perform(post("/artist/bulk")
+						.contentType(MediaType.APPLICATION_JSON)
+						.content("""
+								[
+								    {"name": "Primero del lote", "dni": "90000001A"},
+								    {"name": "%s", "dni": "90000002B"},
+								    {"name": "Tercero del lote", "dni": "90000003C"}
+								]
+								""".formatted(tooLong)))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.imported").value(2))
+				.andExpect(jsonPath("$.errors.length()").value(1))
+				.andExpect(jsonPath("$.errors[0].index").value(1));
+
+		assertThat(artistRepository.findExistingDnis(List.of("90000001A", "90000002B", "90000003C")))
+				.containsExactlyInAnyOrder("90000001A", "90000003C");
+	}
+
+	@Test
+	void duplicateDniIsReportedAndTheRestImported() throws Exception {
+		mvc.perform(post("/artist/bulk")
+						.contentType(MediaType.APPLICATION_NDJSON)
+						.content("""
+								{"name": "Repetido", "dni": "91000001A"}
+								{"name": "Repetido otra vez", "dni": "91000001A"}
+								"""))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.imported").value(1))
+				.andExpect(jsonPath("$.errors[0].index").value(1));
+	}
+
+	@Test
+	void payloadCannotTargetExistingArtists() throws Exception {
+		Artist existing = artistRepository.findAll().get(0);
+		mvc.perform(post("/artist/bulk")
+						.contentType(MediaType.APPLICATION_JSON)
+						.content("""
+								[{"id": %d, "version": 0, "name": "Sobrescrito", "dni": "92000001A"}]
+								""".formatted(existing.getId())))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.imported").value(1));
+
+		assertThat(artistRepository.findById(existing.getId()).orElseThrow().getName()).isEqualTo(existing.getName());
+	}
+}
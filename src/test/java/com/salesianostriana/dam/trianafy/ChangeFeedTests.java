@@ -0,0 +1,139 @@
+package com.salesianostriana.dam.trianafy;
+
+import com.salesianostriana.dam.trianafy.model.Artist;
+import com.salesianostriana.dam.trianafy.model.ChangeEvent;
+import com.salesianostriana.dam.trianafy.model.Song;
+import com.salesianostriana.dam.trianafy.repos.SongRepository;
+import com.salesianostriana.dam.trianafy.service.ArtistService;
+import com.salesianostriana.dam.trianafy.service.ChangeEventService;
+import com.salesianostriana.dam.trianafy.service.SongService;
+import com.salesianostriana.dam.trianafy.service.SongViewCache;
+import com.salesianostriana.dam.trianafy.service.SuggestService;
+import com.salesianostriana.dam.trianafy.views.View;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class ChangeFeedTests {
+
+	@Autowired
+	private MockMvc mvc;
+
+	@Autowired
+	private ChangeEventService changes;
+
+	@Autowired
+	private SongService songService;
+
+	@Autowired
+	private ArtistService artistService;
+
+	@Autowired
+	private SongRepository songRepository;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	@Autowired
+	private SongViewCache viewCache;
+
+	@Autowired
+	private SuggestService suggestService;
+
+	private long head() {
+		long since = 0;
+		for (var feed = changes.findAfter(since, 1000); !feed.getChanges().isEmpty(); feed = changes.findAfter(since, 1000))
+			since = feed.getNext();
+		return since;
+	}
+
+	@Test
+	void editIsRecordedInTheFeed() {
+		long since = head();
+		Song song = songService.findById(songRepository.findAll().get(0).getId()).orElseThrow();
+		song.setAlbum("Reeditado");
+		songService.edit(song);
+
+		var feed = changes.findAfter(since, 10);
+
+		assertThat(feed.getChanges()).singleElement().satisfies(event -> {
+			assertThat(event.getEntityType()).isEqualTo(ChangeEvent.Type.SONG);
+			assertThat(event.getEntityId()).isEqualTo(song.getId());
+			assertThat(event.getOperation()).isEqualTo(ChangeEvent.Operation.UPDATED);
+		});
+		assertThat(feed.getNext()).isGreaterThan(since);
+	}
+
+	@Test
+	void rolledBackChangeIsNotPublished() {
+		long since = head();
+		transactionTemplate.executeWithoutResult(status -> {
+			artistService.add(Artist.builder().name("Descartado").build());
+			status.setRollbackOnly();
+		});
+
+		assertThat(changes.findAfter(since, 10).getChanges()).isEmpty();
+	}
+
+	// The services write the outbox, the suggestions and the view cache in one transaction;
+	// after a rollback none of them may show the change.
+	@Test
+	void rolledBackDeleteLeavesEveryViewUntouched() {
+		long since = head();
+		Song song = songRepository.findAll().get(0);
+		byte[] cached = viewCache.findAll(View.Base.class).orElseThrow();
+		int suggestions = suggestService.suggest(song.getTitle(), 50).size();
+
+		transactionTemplate.executeWithoutResult(status -> {
+			songService.deleteById(song.getId());
+			status.setRollbackOnly();
+		});
+
+		assertThat(changes.findAfter(since, 10).getChanges()).isEmpty();
+		assertThat(viewCache.findAll(View.Base.class).orElseThrow()).isSameAs(cached);
+		assertThat(suggestService.suggest(song.getTitle(), 50)).hasSize(suggestions)
+				.anySatisfy(suggestion -> assertThat(suggestion.getId()).isEqualTo(song.getId()));
+	}
+
+	@Test
+	void longPollIsWokenByTheNextCommit() throws Exception {
+		long since = head();
+		MvcResult pending = mvc.perform(get("/changes").param("since", String.valueOf(since)).param("wait", "10"))
+				.andExpect(request().asyncStarted())
+				.andReturn();
+
+		Artist artist = artistService.add(Artist.builder().name("Nuevo").build());
+
+		mvc.perform(asyncDispatch(pending))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.changes[0].entityType").value("ARTIST"))
+				.andExpect(jsonPath("$.changes[0].entityId").value(artist.getId()))
+				.andExpect(jsonPath("$.changes[0].operation").value("CREATED"));
+	}
+
+	@Test
+	void emptyPollWithoutWaitAnswersImmediately() throws Exception {
+		long since = head();
+		MvcResult result = mvc.perform(get("/changes").param("since", String.valueOf(since)))
+				.andExpect(request().asyncStarted())
+				.andReturn();
+
+		mvc.perform(asyncDispatch(result))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.changes").isEmpty())
+				.andExpect(jsonPath("$.next").value(since));
+	}
+}
@@ -0,0 +1,75 @@
+package com.salesianostriana.dam.trianafy;
+
+import com.salesianostriana.dam.trianafy.model.Song;
+import com.salesianostriana.dam.trianafy.repos.SongRepository;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import javax.persistence.EntityManagerFactory;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "trianafy.hibernate.statistics.enabled=true")
+@AutoConfigureMockMvc
+class ConditionalRequestTests {
+
+	@Autowired
+	private MockMvc mvc;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	@Autowired
+	private SongRepository songRepository;
+
+	private Song anySong() {
+		return songRepository.findAll().get(0);
+	}
+
+	@Test
+	void songCarriesETagAndLastModified() throws Exception {
+		Song song = anySong();
+		mvc.perform(get("/song/" + song.getId()))
+				.andExpect(status().isOk())
+				.andExpect(header().string(HttpHeaders.ETAG, "\"" + song.getVersion() + "\""))
+				.andExpect(header().exists(HttpHeaders.LAST_MODIFIED));
+	}
+
+	@Test
+	void matchingIfNoneMatchSkipsHydration() throws Exception {
+		Song song = anySong();
+		Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		statistics.clear();
+
+		mvc.perform(get("/song/" + song.getId()).header(HttpHeaders.IF_NONE_MATCH, "\"" + song.getVersion() + "\""))
+				.andExpect(status().isNotModified());
+
+		assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(1);
+		assertThat(statistics.getEntityLoadCount()).isZero();
+	}
+
+	@Test
+	void staleIfMatchIsRejected() throws Exception {
+		Song song = anySong();
+		String body = """
+				{"title": "Otra", "album": "Otro", "year": "2000", "artistId": %d}
+				""".formatted(song.getArtist().getId());
+
+		mvc.perform(put("/song/" + song.getId())
+						.contentType(MediaType.APPLICATION_JSON)
+						.header(HttpHeaders.IF_MATCH, "\"" + (song.getVersion() + 1) + "\"")
+						.content(body))
+				.andExpect(status().isPreconditionFailed());
+	}
+}
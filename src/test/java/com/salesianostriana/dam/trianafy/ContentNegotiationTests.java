@@ -0,0 +1,90 @@
+package com.salesianostriana.dam.trianafy;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.google.protobuf.UnknownFieldSet;
+import com.salesianostriana.dam.trianafy.config.CatalogProtobufHttpMessageConverter;
+import com.salesianostriana.dam.trianafy.model.Artist;
+import com.salesianostriana.dam.trianafy.repos.ArtistRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class ContentNegotiationTests {
+
+	private static final MediaType SMILE = MediaType.parseMediaType("application/x-jackson-smile");
+
+	@Autowired
+	private MockMvc mvc;
+
+	@Autowired
+	private ArtistRepository artistRepository;
+
+	private byte[] fetch(String uri, MediaType accept) throws Exception {
+		return mvc.perform(get(uri).accept(accept))
+				.andExpect(status().isOk())
+				.andExpect(content().contentTypeCompatibleWith(accept))
+				.andReturn().getResponse().getContentAsByteArray();
+	}
+
+	@Test
+	void jsonStaysTheDefault() throws Exception {
+		mvc.perform(get("/artist/").header(HttpHeaders.ACCEPT, "*/*"))
+				.andExpect(status().isOk())
+				.andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON));
+	}
+
+	@Test
+	void artistsAsSmileAndCbor() throws Exception {
+		List<Artist> artists = artistRepository.findAll();
+
+		JsonNode smile = new ObjectMapper(new SmileFactory()).readTree(fetch("/artist/", SMILE));
+		JsonNode cbor = new ObjectMapper(new CBORFactory()).readTree(fetch("/artist/", MediaType.APPLICATION_CBOR));
+
+		assertThat(smile).hasSize(artists.size());
+		assertThat(smile.get(0).get("name").asText()).isEqualTo(artists.get(0).getName());
+		assertThat(cbor).isEqualTo(smile);
+	}
+
+	@Test
+	void artistsAsProtobuf() throws Exception {
+		List<Artist> artists = artistRepository.findAll();
+
+		UnknownFieldSet list = UnknownFieldSet.parseFrom(fetch("/artist/", CatalogProtobufHttpMessageConverter.PROTOBUF));
+		List<com.google.protobuf.ByteString> items = list.getField(1).getLengthDelimitedList();
+
+		assertThat(items).hasSize(artists.size());
+		UnknownFieldSet first = UnknownFieldSet.parseFrom(items.get(0));
+		assertThat(first.getField(1).getVarintList()).containsExactly(artists.get(0).getId());
+		assertThat(first.getField(2).getLengthDelimitedList().get(0).toStringUtf8()).isEqualTo(artists.get(0).getName());
+	}
+
+	@Test
+	void playlistPageAsProtobuf() throws Exception {
+		UnknownFieldSet page = UnknownFieldSet.parseFrom(fetch("/list?size=1", CatalogProtobufHttpMessageConverter.PROTOBUF));
+
+		assertThat(page.getField(1).getLengthDelimitedList()).hasSize(1);
+		assertThat(page.getField(2).getVarintList()).containsExactly(1L);
+	}
+
+	@Test
+	void unsupportedTypeIsNotAcceptable() throws Exception {
+		mvc.perform(get("/cache/stats").accept(CatalogProtobufHttpMessageConverter.PROTOBUF))
+				.andExpect(status().isNotAcceptable());
+	}
+}
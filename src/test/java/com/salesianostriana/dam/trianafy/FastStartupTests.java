@@ -0,0 +1,49 @@
+package com.salesianostriana.dam.trianafy;
+
+import com.salesianostriana.dam.trianafy.repos.ArtistRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("fast")
+class FastStartupTests {
+
+	@Autowired
+	private MockMvc mvc;
+
+	@Autowired
+	private ApplicationContext context;
+
+	@Autowired
+	private ArtistRepository artistRepository;
+
+	@Test
+	void demoDataIsNotSeeded() {
+		assertThat(context.getBeanNamesForType(TestModel.class)).isEmpty();
+		assertThat(artistRepository.count()).isZero();
+	}
+
+	@Test
+	void lazyBeansServeTheFirstRequest() throws Exception {
+		mvc.perform(get("/artist/"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$").isEmpty());
+	}
+
+	@Test
+	void apiDocsAreDisabled() throws Exception {
+		mvc.perform(get("/api-docs"))
+				.andExpect(status().isNotFound());
+	}
+}
@@ -0,0 +1,54 @@
+package com.salesianostriana.dam.trianafy;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.metrics.AutoConfigureMetrics;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureMetrics
+class MetricsTests {
+
+	@Autowired
+	private MockMvc mvc;
+
+	@Autowired
+	private MeterRegistry registry;
+
+	@Test
+	void requestsRecordServiceAndDatabaseWork() throws Exception {
+		mvc.perform(get("/song/")).andExpect(status().isOk());
+
+		assertThat(registry.get("trianafy.service")
+				.tags("class", "SongService", "method", "findPage", "exception", "none")
+				.timer().count()).isPositive();
+		assertThat(registry.get("trianafy.hibernate.request.statements")
+				.tags("method", "GET", "uri", "/song/")
+				.summary().totalAmount()).isPositive();
+		assertThat(registry.get("http.server.requests")
+				.tags("uri", "/song", "status", "200")
+				.timer().count()).isPositive();
+	}
+
+	@Test
+	void prometheusScrapesApplicationAndPoolMetrics() throws Exception {
+		mvc.perform(get("/song/")).andExpect(status().isOk());
+
+		mvc.perform(get("/actuator/prometheus"))
+				.andExpect(status().isOk())
+				.andExpect(content().string(containsString("trianafy_service_seconds_bucket{class=\"SongService\"")))
+				.andExpect(content().string(containsString("trianafy_hibernate_request_statements_count{")))
+				.andExpect(content().string(containsString("http_server_requests_seconds_bucket{")))
+				.andExpect(content().string(containsString("hikaricp_connections_active")));
+	}
+}
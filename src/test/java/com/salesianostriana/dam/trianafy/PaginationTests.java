@@ -0,0 +1,173 @@
+package com.salesianostriana.dam.trianafy;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.salesianostriana.dam.trianafy.dto.CursorPageDto;
+import com.salesianostriana.dam.trianafy.model.Playlist;
+import com.salesianostriana.dam.trianafy.model.Song;
+import com.salesianostriana.dam.trianafy.repos.SongRepository;
+import com.salesianostriana.dam.trianafy.service.PlaylistService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class PaginationTests {
+
+	@Autowired
+	private MockMvc mvc;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Autowired
+	private PlaylistService playlistService;
+
+	@Autowired
+	private SongRepository songRepository;
+
+	@Value("${trianafy.pagination.max-size}")
+	private int maxPageSize;
+
+	@Value("${spring.mvc.async.request-timeout}")
+	private Duration asyncTimeout;
+
+	@Value("${trianafy.streaming.timeout}")
+	private Duration streamingTimeout;
+
+	private Long playlistId;
+	private List<Long> songIds;
+
+	@BeforeEach
+	void setUp() {
+		playlistId = playlistService.add(new Playlist("Paginada", "Lista de prueba")).getId();
+		songIds = songRepository.findAll().stream().map(Song::getId).limit(5).toList();
+		playlistService.insertSongs(playlistId, songIds, null);
+	}
+
+	private JsonNode fetch(String url) throws Exception {
+		String body = mvc.perform(get(url))
+				.andExpect(status().isOk())
+				.andReturn().getResponse().getContentAsString();
+		return objectMapper.readTree(body);
+	}
+
+	@Test
+	void playlistCursorWalksEverySongOnce() throws Exception {
+		List<Long> seen = new ArrayList<>();
+		String url = "/list/" + playlistId + "/song?size=2";
+		JsonNode page = fetch(url);
+		while (true) {
+			page.get("content").forEach(song -> seen.add(song.get("id").asLong()));
+			assertThat(page.has("nextPage")).isFalse();
+			if (page.get("next").isNull())
+				break;
+			page = fetch(url + "&cursor=" + page.get("next").asText());
+		}
+
+		assertThat(seen).containsExactlyElementsOf(songIds);
+	}
+
+	@Test
+	void playlistOffsetPagesReportTheNextPageOnly() throws Exception {
+		mvc.perform(get("/list/{id}/song", playlistId).param("page", "1").param("size", "2"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.size").value(2))
+				.andExpect(jsonPath("$.next").isEmpty())
+				.andExpect(jsonPath("$.nextPage").value(2));
+
+		// The last page is exactly full: no phantom next page.
+		mvc.perform(get("/list/{id}/song", playlistId).param("page", "0").param("size", "5"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.size").value(5))
+				.andExpect(jsonPath("$.nextPage").doesNotExist());
+	}
+
+	@Test
+	void playlistCursorAndPageCannotBeMixed() throws Exception {
+		mvc.perform(get("/list/{id}/song", playlistId).param("page", "0").param("cursor", "MTAyNCwx"))
+				.andExpect(status().isBadRequest());
+		mvc.perform(get("/list/{id}/song", playlistId).param("cursor", "MTAyNA"))
+				.andExpect(status().isBadRequest());
+	}
+
+	@Test
+	void songCursorWalksTheCatalogueInIdOrder() throws Exception {
+		List<Long> seen = new ArrayList<>();
+		JsonNode page = fetch("/song/?size=2");
+		while (true) {
+			assertThat(page.get("content").size()).isLessThanOrEqualTo(2);
+			page.get("content").forEach(song -> seen.add(song.get("id").asLong()));
+			if (page.get("next").isNull())
+				break;
+			page = fetch("/song/?size=2&cursor=" + page.get("next").asText());
+		}
+
+		assertThat(seen).containsExactlyElementsOf(songRepository.findAll().stream().map(Song::getId).sorted().toList());
+	}
+
+	@Test
+	void songCursorRejectsGarbage() throws Exception {
+		mvc.perform(get("/song/").param("cursor", "no-es-un-cursor"))
+				.andExpect(status().isBadRequest());
+		mvc.perform(get("/song/").param("cursor", CursorPageDto.encodeCursor(1, 2)))
+				.andExpect(status().isBadRequest());
+	}
+
+	@Test
+	void songPageSizeIsCapped() throws Exception {
+		mvc.perform(get("/song/").param("size", "100000"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.size").value((int) Math.min(songRepository.count(), maxPageSize)));
+	}
+
+	@Test
+	void onlyStreamingEndpointsOutliveTheAsyncTimeout() throws Exception {
+		MvcResult stream = mvc.perform(get("/song/stream"))
+				.andExpect(request().asyncStarted())
+				.andReturn();
+		assertThat(stream.getRequest().getAsyncContext().getTimeout()).isEqualTo(streamingTimeout.toMillis());
+
+		MvcResult changes = mvc.perform(get("/changes").param("since", "0"))
+				.andExpect(request().asyncStarted())
+				.andReturn();
+		assertThat(changes.getRequest().getAsyncContext().getTimeout()).isEqualTo(asyncTimeout.toMillis());
+	}
+
+	@Test
+	void playlistSummariesArePagedByNumber() throws Exception {
+		JsonNode first = fetch("/list?size=1&sort=numberSongs&direction=DESC");
+		assertThat(first.get("size").asInt()).isEqualTo(1);
+		assertThat(first.get("content").get(0).get("numberSongs").asLong()).isGreaterThanOrEqualTo(songIds.size());
+		assertThat(first.get("nextPage").asInt()).isEqualTo(1);
+		assertThat(first.has("number")).isFalse();
+
+		JsonNode all = fetch("/list?size=500");
+		assertThat(all.has("nextPage")).isFalse();
+		assertThat(all.get("size").asInt()).isEqualTo(all.get("content").size());
+	}
+
+	@Test
+	void playlistSummariesRejectUnknownSorts() throws Exception {
+		mvc.perform(get("/list").param("sort", "description"))
+				.andExpect(status().isBadRequest());
+		mvc.perform(get("/list").param("direction", "SIDEWAYS"))
+				.andExpect(status().isBadRequest());
+	}
+}
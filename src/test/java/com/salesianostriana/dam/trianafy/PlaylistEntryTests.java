@@ -0,0 +1,238 @@
+package com.salesianostriana.dam.trianafy;
+
+import com.salesianostriana.dam.trianafy.dto.GetSongDto;
+import com.salesianostriana.dam.trianafy.dto.MoveSongDto;
+import com.salesianostriana.dam.trianafy.dto.PlaylistChangeDto;
+import com.salesianostriana.dam.trianafy.model.Playlist;
+import com.salesianostriana.dam.trianafy.model.Song;
+import com.salesianostriana.dam.trianafy.repos.PlaylistRepository;
+import com.salesianostriana.dam.trianafy.repos.SongRepository;
+import com.salesianostriana.dam.trianafy.service.PlaylistService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@Transactional
+class PlaylistEntryTests {
+
+	@Autowired
+	private MockMvc mvc;
+
+	@Autowired
+	private PlaylistService service;
+
+	@Autowired
+	private PlaylistRepository playlistRepository;
+
+	@Autowired
+	private SongRepository songRepository;
+
+	@Autowired
+	private EntityManager entityManager;
+
+	private Long playlistId;
+	private List<Long> songIds;
+
+	@BeforeEach
+	void setUp() {
+		playlistId = service.add(new Playlist("Orden", "Lista de prueba")).getId();
+		songIds = songRepository.findAll().stream().map(Song::getId).limit(4).toList();
+	}
+
+	private List<Long> order() {
+		entityManager.flush();
+		entityManager.clear();
+		return playlistRepository.findDetailById(playlistId).orElseThrow()
+				.getSongs().stream().map(Song::getId).toList();
+	}
+
+	@Test
+	void appendInsertMoveAndRemoveKeepOrder() {
+		service.appendSong(playlistId, songIds.get(0));
+		service.appendSong(playlistId, songIds.get(1));
+		service.insertSong(playlistId, songIds.get(2), 0);
+		service.insertSong(playlistId, songIds.get(3), 1);
+		assertThat(order()).containsExactly(songIds.get(2), songIds.get(3), songIds.get(0), songIds.get(1));
+
+		assertThat(service.moveSong(playlistId, songIds.get(2), 3)).isTrue();
+		assertThat(order()).containsExactly(songIds.get(3), songIds.get(0), songIds.get(1), songIds.get(2));
+
+		assertThat(service.removeSong(playlistId, songIds.get(0))).isTrue();
+		assertThat(order()).containsExactly(songIds.get(3), songIds.get(1), songIds.get(2));
+		assertThat(service.findSong(playlistId, songIds.get(0))).isEmpty();
+		assertThat(service.findSong(playlistId, songIds.get(1))).isPresent();
+	}
+
+	@Test
+	@Transactional(propagation = Propagation.NOT_SUPPORTED)
+	void concurrentAppendsToOnePlaylistAllSucceed() throws Exception {
+		Long id = service.add(new Playlist("Concurrente", "Lista de prueba")).getId();
+		long version = playlistRepository.findVersionById(id).orElseThrow().getVersion();
+		int threads = 8;
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		try {
+			CountDownLatch start = new CountDownLatch(1);
+			List<Future<?>> appends = new ArrayList<>();
+			for (int i = 0; i < threads; i++) {
+				Long songId = songIds.get(i % songIds.size());
+				appends.add(executor.submit(() -> {
+					start.await();
+					return service.appendSong(id, songId).orElseThrow();
+				}));
+			}
+			start.countDown();
+			for (Future<?> append : appends)
+				append.get();
+
+			assertThat(service.findSongPage(id, 0, 100).getContent()).hasSize(threads);
+			assertThat(playlistRepository.findVersionById(id).orElseThrow().getVersion()).isEqualTo(version + threads);
+		} finally {
+			executor.shutdown();
+			service.deleteById(id);
+		}
+	}
+
+	@Test
+	void removingADuplicatedSongDropsOnlyItsFirstOccurrence() {
+		Long a = songIds.get(0);
+		Long b = songIds.get(1);
+		service.insertSongs(playlistId, List.of(a, b, a, b, a), null);
+
+		assertThat(service.removeSong(playlistId, a)).isTrue();
+		assertThat(order()).containsExactly(b, a, b, a);
+
+		PlaylistChangeDto removed = service.removeSongs(playlistId, List.of(a, b, b, b, -1L, -1L)).orElseThrow();
+		assertThat(removed.getChanged()).isEqualTo(3);
+		assertThat(removed.getNotFound()).containsExactly(b, -1L);
+		assertThat(order()).containsExactly(a);
+	}
+
+	@Test
+	void repeatedInsertsAtTheSameIndexRenumber() {
+		service.appendSong(playlistId, songIds.get(0));
+		service.appendSong(playlistId, songIds.get(1));
+		for (int i = 0; i < 20; i++)
+			service.insertSong(playlistId, songIds.get(2), 1);
+
+		List<Long> order = order();
+		assertThat(order).hasSize(22);
+		assertThat(order.get(0)).isEqualTo(songIds.get(0));
+		assertThat(order.get(21)).isEqualTo(songIds.get(1));
+	}
+
+	@Test
+	void batchesOnlyTouchTheGivenSongs() {
+		PlaylistChangeDto added = service.insertSongs(playlistId, List.of(songIds.get(0), -1L, songIds.get(1)), null).orElseThrow();
+		assertThat(added.getChanged()).isEqualTo(2);
+		assertThat(added.getNotFound()).containsExactly(-1L);
+
+		service.insertSongs(playlistId, List.of(songIds.get(2), songIds.get(3)), 1);
+		assertThat(order()).containsExactly(songIds.get(0), songIds.get(2), songIds.get(3), songIds.get(1));
+
+		service.moveSongs(playlistId, List.of(new MoveSongDto(songIds.get(1), 0), new MoveSongDto(songIds.get(0), 3)));
+		assertThat(order()).containsExactly(songIds.get(1), songIds.get(2), songIds.get(3), songIds.get(0));
+
+		PlaylistChangeDto removed = service.removeSongs(playlistId, List.of(songIds.get(2), songIds.get(3), -1L)).orElseThrow();
+		assertThat(removed.getChanged()).isEqualTo(2);
+		assertThat(removed.getNotFound()).containsExactly(-1L);
+		assertThat(order()).containsExactly(songIds.get(1), songIds.get(0));
+	}
+
+	@Test
+	void songPagesFollowPlaylistOrder() {
+		service.insertSongs(playlistId, songIds, null);
+		service.moveSong(playlistId, songIds.get(3), 0);
+		entityManager.flush();
+
+		List<GetSongDto> first = service.findSongsAfter(playlistId, Long.MIN_VALUE, Long.MIN_VALUE, 2);
+		GetSongDto last = first.get(1);
+		List<GetSongDto> second = service.findSongsAfter(playlistId, last.getPosition(), last.getEntryId(), 2);
+
+		assertThat(first).extracting(GetSongDto::getId).containsExactly(songIds.get(3), songIds.get(0));
+		assertThat(second).extracting(GetSongDto::getId).containsExactly(songIds.get(1), songIds.get(2));
+		assertThat(service.findSongPage(playlistId, 1, 2).getContent()).isEqualTo(second);
+		assertThat(service.findSongPage(playlistId, 1, 2).hasNext()).isFalse();
+	}
+
+	// Equal positions can only come from concurrent inserts; the cursor must neither skip nor repeat them.
+	@Test
+	void cursorSplitsEntriesWithTheSamePosition() {
+		service.insertSongs(playlistId, songIds, null);
+		entityManager.flush();
+		entityManager.createQuery("update PlaylistEntry e set e.position = 1024 where e.playlist.id = :playlistId")
+				.setParameter("playlistId", playlistId)
+				.executeUpdate();
+
+		List<Long> seen = new ArrayList<>();
+		long position = Long.MIN_VALUE;
+		long entryId = Long.MIN_VALUE;
+		for (List<GetSongDto> page = service.findSongsAfter(playlistId, position, entryId, 3); !page.isEmpty();
+			 page = service.findSongsAfter(playlistId, position, entryId, 3)) {
+			page.forEach(song -> seen.add(song.getId()));
+			position = page.get(page.size() - 1).getPosition();
+			entryId = page.get(page.size() - 1).getEntryId();
+		}
+
+		assertThat(seen).containsExactlyElementsOf(songIds);
+	}
+
+	private List<Long> positions() {
+		entityManager.flush();
+		entityManager.clear();
+		return entityManager.createQuery("select e.position from PlaylistEntry e " +
+						"where e.playlist.id = :playlistId order by e.position", Long.class)
+				.setParameter("playlistId", playlistId)
+				.getResultList();
+	}
+
+	@Test
+	void exhaustedGapsAreRenumberedInOneGo() {
+		service.insertSongs(playlistId, songIds.subList(0, 3), null);
+		entityManager.flush();
+		entityManager.createQuery("update PlaylistEntry e set e.position = e.position / 1024 where e.playlist.id = :playlistId")
+				.setParameter("playlistId", playlistId)
+				.executeUpdate();
+
+		service.insertSong(playlistId, songIds.get(3), 1);
+		assertThat(order()).containsExactly(songIds.get(0), songIds.get(3), songIds.get(1), songIds.get(2));
+		assertThat(positions()).containsExactly(1024L, 2048L, 3072L, 4096L);
+
+		entityManager.createQuery("update PlaylistEntry e set e.position = e.position / 1024 where e.playlist.id = :playlistId")
+				.setParameter("playlistId", playlistId)
+				.executeUpdate();
+		service.moveSong(playlistId, songIds.get(0), 2);
+		assertThat(order()).containsExactly(songIds.get(3), songIds.get(1), songIds.get(0), songIds.get(2));
+	}
+
+	@Test
+	void missingSongIdsAreBadRequests() throws Exception {
+		mvc.perform(post("/list/{id}/song", playlistId)
+						.contentType(MediaType.APPLICATION_JSON)
+						.content("{\"songIds\": null}"))
+				.andExpect(status().isBadRequest());
+		mvc.perform(post("/list/{id}/song", playlistId)
+						.contentType(MediaType.APPLICATION_JSON)
+						.content("{\"songIds\": [null]}"))
+				.andExpect(status().isBadRequest());
+	}
+}
@@ -0,0 +1,127 @@
+package com.salesianostriana.dam.trianafy;
+
+import com.salesianostriana.dam.trianafy.model.Artist;
+import com.salesianostriana.dam.trianafy.model.Playlist;
+import com.salesianostriana.dam.trianafy.model.Song;
+import com.salesianostriana.dam.trianafy.monitoring.SqlBudgetHeaderAdvice;
+import com.salesianostriana.dam.trianafy.service.ArtistService;
+import com.salesianostriana.dam.trianafy.service.PlaylistService;
+import com.salesianostriana.dam.trianafy.service.SongService;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "trianafy.hibernate.statistics.enabled=true")
+@AutoConfigureMockMvc
+class QueryCountTests {
+
+	@Autowired
+	private MockMvc mvc;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	@Autowired
+	private ArtistService artistService;
+
+	@Autowired
+	private SongService songService;
+
+	@Autowired
+	private PlaylistService playlistService;
+
+	// The demo data has three artists, too few for a lazy association per row to stand
+	// out; this playlist spreads its songs over many artists. Seeded once per context.
+	private static final int ARTISTS = 20;
+	private static Long playlistId;
+	private static Long songId;
+
+	private Statistics statistics;
+
+	@BeforeEach
+	void setUp() {
+		statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		if (playlistId == null)
+			seed();
+	}
+
+	private void seed() {
+		List<Long> songIds = new ArrayList<>();
+		for (int i = 0; i < ARTISTS; i++) {
+			Artist artist = artistService.add(Artist.builder().name("Artista " + i).build());
+			for (int j = 0; j < 2; j++)
+				songIds.add(songService.add(Song.builder()
+						.title("Canción " + i + "-" + j)
+						.album("Álbum " + i)
+						.year("2000")
+						.artist(artist)
+						.build()).getId());
+		}
+		playlistId = playlistService.add(new Playlist("Muchos artistas", "Lista de prueba")).getId();
+		playlistService.insertSongs(playlistId, songIds, null);
+		songId = songIds.get(0);
+	}
+
+	// Measures a cold read: with the second-level and query caches warm, a request that
+	// loads each artist lazily could still come in at one statement.
+	private long statementsFor(String url) throws Exception {
+		SessionFactory sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+		sessionFactory.getCache().evictAllRegions();
+		statistics.clear();
+		mvc.perform(get(url)).andExpect(status().isOk());
+		return statistics.getPrepareStatementCount();
+	}
+
+	@Test
+	void playlistSummariesUseOneStatement() throws Exception {
+		assertThat(statementsFor("/list")).isEqualTo(1);
+	}
+
+	@Test
+	void playlistDetailUsesOneStatement() throws Exception {
+		assertThat(statementsFor("/list/" + playlistId)).isEqualTo(1);
+		assertThat(statementsFor("/list/" + playlistId + "/song?size=" + 2 * ARTISTS)).isEqualTo(1);
+		assertThat(statementsFor("/list/" + playlistId + "/song?page=0&size=" + 2 * ARTISTS)).isEqualTo(1);
+	}
+
+	@Test
+	void songPageUsesOneStatement() throws Exception {
+		assertThat(statementsFor("/song/?size=500")).isEqualTo(1);
+	}
+
+	@Test
+	void songDetailUsesOneStatement() throws Exception {
+		assertThat(statementsFor("/song/" + songId)).isEqualTo(1);
+	}
+
+	@Test
+	void cachedSongDetailUsesNoStatement() throws Exception {
+		statementsFor("/song/" + songId);
+		statistics.clear();
+		mvc.perform(get("/song/" + songId)).andExpect(status().isOk());
+		assertThat(statistics.getPrepareStatementCount()).isZero();
+	}
+
+	@Test
+	void responsesReportTheirSqlBudget() throws Exception {
+		mvc.perform(get("/song/"))
+				.andExpect(status().isOk())
+				.andExpect(header().string(SqlBudgetHeaderAdvice.SQL_COUNT_HEADER, "1"))
+				.andExpect(header().exists(SqlBudgetHeaderAdvice.SQL_TIME_HEADER));
+	}
+
+}
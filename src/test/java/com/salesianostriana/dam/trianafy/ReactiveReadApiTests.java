@@ -0,0 +1,116 @@
+package com.salesianostriana.dam.trianafy;
+
+import com.salesianostriana.dam.trianafy.dto.GetSongDto;
+import com.salesianostriana.dam.trianafy.model.Playlist;
+import com.salesianostriana.dam.trianafy.model.Song;
+import com.salesianostriana.dam.trianafy.reactive.ReactiveServer;
+import com.salesianostriana.dam.trianafy.repos.SongRepository;
+import com.salesianostriana.dam.trianafy.service.PlaylistService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {"trianafy.reactive.enabled=true", "trianafy.reactive.port=0"})
+class ReactiveReadApiTests {
+
+	@Autowired
+	private ReactiveServer server;
+
+	@Autowired
+	private SongRepository songRepository;
+
+	@Autowired
+	private PlaylistService playlistService;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	private WebTestClient client;
+
+	@BeforeEach
+	void setUp() {
+		client = WebTestClient.bindToServer().baseUrl("http://localhost:" + server.getPort()).build();
+	}
+
+	@Test
+	void songsAreStreamedAsNdjson() {
+		var songs = client.get().uri("/reactive/song?size=3")
+				.accept(MediaType.APPLICATION_NDJSON)
+				.exchange()
+				.expectStatus().isOk()
+				.expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+				.returnResult(GetSongDto.class)
+				.getResponseBody()
+				.collectList()
+				.block();
+
+		assertThat(songs).hasSize(3);
+		assertThat(songs).allSatisfy(song -> assertThat(song.getArtistName()).isNotBlank());
+	}
+
+	@Test
+	void missingSongIsNotFound() {
+		client.get().uri("/reactive/song/{id}", Long.MAX_VALUE)
+				.exchange()
+				.expectStatus().isNotFound();
+	}
+
+	@Test
+	void songMatchesTheJpaSide() {
+		var song = songRepository.findAll().get(0);
+		client.get().uri("/reactive/song/{id}", song.getId())
+				.exchange()
+				.expectStatus().isOk()
+				.expectBody()
+				.jsonPath("$.title").isEqualTo(song.getTitle());
+	}
+
+	@Test
+	void malformedParametersAreBadRequests() {
+		client.get().uri("/reactive/song?afterId=abc")
+				.exchange()
+				.expectStatus().isBadRequest();
+		client.get().uri("/reactive/song/abc")
+				.exchange()
+				.expectStatus().isBadRequest();
+	}
+
+	// Equal positions can only come from concurrent inserts; the cursor must neither skip nor repeat them.
+	@Test
+	void playlistPagesSplitEntriesWithTheSamePosition() {
+		Long playlistId = playlistService.add(new Playlist("Reactiva", "Lista de prueba")).getId();
+		List<Long> songIds = songRepository.findAll().stream().map(Song::getId).limit(5).toList();
+		playlistService.insertSongs(playlistId, songIds, null);
+		jdbcTemplate.update("update playlist_entry set position = 1024 where playlist_id = ?", playlistId);
+
+		List<Long> seen = new ArrayList<>();
+		String uri = "/reactive/list/" + playlistId + "/song?size=2";
+		List<GetSongDto> page = fetch(uri);
+		while (!page.isEmpty()) {
+			page.forEach(song -> seen.add(song.getId()));
+			GetSongDto last = page.get(page.size() - 1);
+			assertThat(last.getEntryId()).isNotNull();
+			page = fetch(uri + "&afterPosition=" + last.getPosition() + "&afterEntryId=" + last.getEntryId());
+		}
+
+		assertThat(seen).containsExactlyElementsOf(songIds);
+	}
+
+	private List<GetSongDto> fetch(String uri) {
+		return client.get().uri(uri)
+				.exchange()
+				.expectStatus().isOk()
+				.expectBodyList(GetSongDto.class)
+				.returnResult()
+				.getResponseBody();
+	}
+}
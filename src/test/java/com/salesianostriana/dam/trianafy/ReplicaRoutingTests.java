@@ -0,0 +1,117 @@
+package com.salesianostriana.dam.trianafy;
+
+import com.salesianostriana.dam.trianafy.routing.ReadWriteRoutingDataSource;
+import com.salesianostriana.dam.trianafy.routing.ReadYourWrites;
+import com.salesianostriana.dam.trianafy.routing.ReplicaLagMonitor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Two in-memory H2 databases stand in for the primary and its replica; each one
+// answers with its own name, so the tests can see where a statement was routed.
+class ReplicaRoutingTests {
+
+	private DataSource primary;
+	private DataSource replica;
+	private ReplicaLagMonitor lagMonitor;
+	private JdbcTemplate jdbc;
+	private TransactionTemplate readOnly;
+	private TransactionTemplate readWrite;
+
+	@BeforeEach
+	void setUp() {
+		primary = node("primary");
+		replica = node("replica");
+		lagMonitor = new ReplicaLagMonitor(primary, Map.of("replica-0", replica), Duration.ofSeconds(5));
+		lagMonitor.start(Duration.ofHours(1));
+
+		DataSource routing = new LazyConnectionDataSourceProxy(
+				new ReadWriteRoutingDataSource(primary, Map.of("replica-0", replica), lagMonitor));
+		jdbc = new JdbcTemplate(routing);
+		readWrite = new TransactionTemplate(new DataSourceTransactionManager(routing));
+		readOnly = new TransactionTemplate(new DataSourceTransactionManager(routing));
+		readOnly.setReadOnly(true);
+	}
+
+	@AfterEach
+	void tearDown() {
+		lagMonitor.close();
+		ReadYourWrites.clear();
+		new JdbcTemplate(primary).execute("drop all objects");
+		new JdbcTemplate(replica).execute("drop all objects");
+	}
+
+	@Test
+	void readOnlyTransactionsGoToAnUpToDateReplica() {
+		replicate(0);
+
+		assertThat(readOnlyNode()).isEqualTo("replica");
+		assertThat(readWriteNode()).isEqualTo("primary");
+		assertThat(node()).isEqualTo("primary");
+	}
+
+	@Test
+	void laggingReplicaIsSkipped() {
+		replicate(Duration.ofMinutes(1).toMillis());
+
+		assertThat(readOnlyNode()).isEqualTo("primary");
+	}
+
+	@Test
+	void replicaWithoutHeartbeatIsSkipped() {
+		lagMonitor.check();
+
+		assertThat(readOnlyNode()).isEqualTo("primary");
+	}
+
+	@Test
+	void recentWriterReadsFromThePrimary() {
+		replicate(0);
+		ReadYourWrites.stick();
+
+		assertThat(readOnlyNode()).isEqualTo("primary");
+
+		ReadYourWrites.clear();
+		assertThat(readOnlyNode()).isEqualTo("replica");
+	}
+
+	private String node() {
+		return jdbc.queryForObject("select name from node", String.class);
+	}
+
+	private String readOnlyNode() {
+		return readOnly.execute(status -> node());
+	}
+
+	private String readWriteNode() {
+		return readWrite.execute(status -> node());
+	}
+
+	// Copies the primary's heartbeat to the replica, as replication would, aged by the given lag.
+	private void replicate(long lagMillis) {
+		Long beat = new JdbcTemplate(primary).queryForObject("select beat from replica_heartbeat where id = 1", Long.class);
+		JdbcTemplate target = new JdbcTemplate(replica);
+		target.execute("create table if not exists replica_heartbeat (id int primary key, beat bigint not null)");
+		target.update("insert into replica_heartbeat (id, beat) values (1, ?)", beat - lagMillis);
+		lagMonitor.check();
+	}
+
+	private static DataSource node(String name) {
+		DataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:routing-" + name + ";DB_CLOSE_DELAY=-1", "sa", "");
+		JdbcTemplate template = new JdbcTemplate(dataSource);
+		template.execute("create table node (name varchar(20))");
+		template.update("insert into node (name) values (?)", name);
+		return dataSource;
+	}
+}
@@ -0,0 +1,68 @@
+package com.salesianostriana.dam.trianafy;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// Same schema settings as the prod profile, on the in-memory database: the context
+// only starts if Hibernate validates against the Flyway schema, and each access path
+// must be served by its index rather than a table scan.
+@SpringBootTest(properties = {
+		"spring.flyway.enabled=true",
+		"spring.jpa.hibernate.ddl-auto=validate",
+		"trianafy.seed.demo=false"
+})
+class SchemaMigrationTests {
+
+	@Autowired
+	private JdbcTemplate jdbc;
+
+	private String plan(String sql) {
+		return String.join("\n", jdbc.queryForList("explain " + sql, String.class)).toUpperCase();
+	}
+
+	@Test
+	void songsByArtistUseTheArtistIndex() {
+		assertThat(plan("select id from song where artist_id = 1")).contains("IX_SONG_ARTIST");
+	}
+
+	@Test
+	void songLookupsUseTitleAndAlbumIndexes() {
+		assertThat(plan("select id from song where title = 'Enter Sandman'")).contains("IX_SONG_TITLE");
+		assertThat(plan("select id from song where album = 'Metallica'")).contains("IX_SONG_ALBUM");
+	}
+
+	@Test
+	void artistByDniUsesTheUniqueIndex() {
+		assertThat(plan("select id from artist where dni = '12345678A'")).contains("UX_ARTIST_DNI");
+	}
+
+	@Test
+	void playlistEntriesAreIndexedBothWays() {
+		assertThat(plan("select song_id from playlist_entry where playlist_id = 1 order by position"))
+				.contains("IX_PLAYLIST_ENTRY_PLAYLIST_POSITION");
+		assertThat(plan("select id from playlist_entry where playlist_id = 1 and song_id = 2"))
+				.containsAnyOf("IX_PLAYLIST_ENTRY_PLAYLIST_SONG", "IX_PLAYLIST_ENTRY_PLAYLIST_POSITION");
+		assertThat(plan("select playlist_id from playlist_entry where song_id = 2")).contains("IX_PLAYLIST_ENTRY_SONG");
+	}
+
+	@Test
+	void foreignKeysReuseTheDeclaredIndexes() {
+		assertThat(jdbc.queryForList("select index_name from information_schema.indexes where table_name in ('SONG', 'PLAYLIST_ENTRY')", String.class))
+				.noneMatch(name -> name.startsWith("FK_"));
+	}
+
+	@Test
+	void duplicateDniIsRejected() {
+		jdbc.update("insert into artist (id, name, dni, version) values (next value for artist_seq, 'Uno', '00000001Z', 0)");
+
+		assertThatThrownBy(() ->
+				jdbc.update("insert into artist (id, name, dni, version) values (next value for artist_seq, 'Dos', '00000001Z', 0)"))
+				.isInstanceOf(DuplicateKeyException.class);
+	}
+}
@@ -0,0 +1,63 @@
+package com.salesianostriana.dam.trianafy;
+
+import com.salesianostriana.dam.trianafy.repos.ArtistRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.test.web.servlet.MockMvc;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.hasItem;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "trianafy.hibernate.statistics.enabled=true")
+@AutoConfigureMockMvc
+class SecondLevelCacheTests {
+
+	@Autowired
+	private MockMvc mvc;
+
+	@Autowired
+	private CacheManager hibernateCacheManager;
+
+	@Autowired
+	private ArtistRepository artistRepository;
+
+	@Test
+	void eachContextHasItsOwnCacheManager() {
+		assertThat(hibernateCacheManager.getURI()).isNotEqualTo(Caching.getCachingProvider().getDefaultURI());
+		assertThat(hibernateCacheManager.getCacheNames()).contains("artist", "default-query-results-region");
+	}
+
+	@Test
+	void closingAnotherContextLeavesThisCacheOpen() {
+		try (ConfigurableApplicationContext other = new SpringApplicationBuilder(TrianafyBaseApplication.class)
+				.web(WebApplicationType.NONE)
+				.run("--trianafy.seed.demo=false", "--spring.main.banner-mode=off")) {
+			assertThat(other.getBean(CacheManager.class)).isNotSameAs(hibernateCacheManager);
+			assertThat(other.getBean(ArtistRepository.class).findAll()).isEmpty();
+		}
+
+		assertThat(hibernateCacheManager.isClosed()).isFalse();
+		assertThat(artistRepository.findAll()).isNotEmpty();
+	}
+
+	@Test
+	void statsReportEvictions() throws Exception {
+		artistRepository.findAll();
+
+		mvc.perform(get("/cache/stats"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$[*].region", hasItem("artist")))
+				.andExpect(jsonPath("$[0].evictionCount").isNumber());
+	}
+}
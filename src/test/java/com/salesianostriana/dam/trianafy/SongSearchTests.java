@@ -0,0 +1,100 @@
+package com.salesianostriana.dam.trianafy;
+
+import com.salesianostriana.dam.trianafy.dto.GetSongDto;
+import com.salesianostriana.dam.trianafy.dto.SearchIndexStatusDto;
+import com.salesianostriana.dam.trianafy.model.Song;
+import com.salesianostriana.dam.trianafy.service.SongSearchService;
+import org.hibernate.search.mapper.orm.Search;
+import org.hibernate.search.mapper.orm.work.SearchWorkspace;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import javax.persistence.EntityManagerFactory;
+import java.lang.reflect.Proxy;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "trianafy.search.rebuild-if-empty=true")
+@AutoConfigureMockMvc
+class SongSearchTests {
+
+	@Autowired
+	private MockMvc mvc;
+
+	@Autowired
+	private SongSearchService searchService;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	private SearchIndexStatusDto awaitRebuild() throws InterruptedException {
+		long deadline = System.currentTimeMillis() + 30_000;
+		while (searchService.status().isRunning() && System.currentTimeMillis() < deadline)
+			Thread.sleep(50);
+		return searchService.status();
+	}
+
+	private void purgeIndex() {
+		SearchWorkspace workspace = Search.mapping(entityManagerFactory).scope(Song.class).workspace();
+		workspace.purge();
+		workspace.refresh();
+	}
+
+	@Test
+	void reindexReportsItsOutcome() throws Exception {
+		mvc.perform(post("/song/search/reindex"))
+				.andExpect(status().isAccepted())
+				.andExpect(header().string("Location", "/song/search/reindex"))
+				.andExpect(jsonPath("$.startedAt").exists());
+
+		SearchIndexStatusDto done = awaitRebuild();
+		assertThat(done.isRunning()).isFalse();
+		assertThat(done.getError()).isNull();
+
+		mvc.perform(get("/song/search/reindex"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.running").value(false))
+				.andExpect(jsonPath("$.finishedAt").exists())
+				.andExpect(jsonPath("$.error").doesNotExist());
+	}
+
+	@Test
+	void emptyIndexIsRebuiltFromTheDatabase() throws Exception {
+		awaitRebuild();
+		purgeIndex();
+		assertThat(searchService.search("olvido", 0, 10)).isEmpty();
+
+		searchService.rebuildIfEmpty();
+
+		assertThat(awaitRebuild().getError()).isNull();
+		assertThat(searchService.search("olvido", 0, 10))
+				.extracting(GetSongDto::getTitle)
+				.contains("Donde habita el olvido");
+	}
+
+	@Test
+	void rebuildThatCannotStartIsReportedAsFailed() {
+		EntityManagerFactory broken = (EntityManagerFactory) Proxy.newProxyInstance(getClass().getClassLoader(),
+				new Class<?>[]{EntityManagerFactory.class}, (proxy, method, args) -> {
+					throw new IllegalStateException("Sin índice");
+				});
+		SongSearchService failing = new SongSearchService(null, broken, null);
+
+		assertThatThrownBy(() -> failing.rebuild().toCompletableFuture().join())
+				.hasRootCauseInstanceOf(IllegalStateException.class);
+
+		SearchIndexStatusDto status = failing.status();
+		assertThat(status.isRunning()).isFalse();
+		assertThat(status.getFinishedAt()).isNotNull();
+		assertThat(status.getError()).isNotNull();
+	}
+}
@@ -0,0 +1,152 @@
+package com.salesianostriana.dam.trianafy;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.salesianostriana.dam.trianafy.model.Song;
+import com.salesianostriana.dam.trianafy.repos.SongRepository;
+import com.salesianostriana.dam.trianafy.service.SongService;
+import com.salesianostriana.dam.trianafy.service.SongViewCache;
+import com.salesianostriana.dam.trianafy.views.View;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.unit.DataSize;
+
+import javax.persistence.EntityManagerFactory;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "trianafy.hibernate.statistics.enabled=true")
+@AutoConfigureMockMvc
+class SongViewCacheTests {
+
+	@Autowired
+	private MockMvc mvc;
+
+	@Autowired
+	private SongViewCache viewCache;
+
+	@Autowired
+	private SongService songService;
+
+	@Autowired
+	private SongRepository songRepository;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	private Song anySong() {
+		return songService.findById(songRepository.findAll().get(0).getId()).orElseThrow();
+	}
+
+	@Test
+	void cacheIsOnlyInvalidatedByACommit() {
+		byte[] before = viewCache.findAll(View.Base.class).orElseThrow();
+
+		transactionTemplate.executeWithoutResult(status -> {
+			Song song = anySong();
+			song.setAlbum("Descartado");
+			songService.edit(song);
+			assertThat(viewCache.findAll(View.Base.class).orElseThrow()).isSameAs(before);
+			status.setRollbackOnly();
+		});
+		assertThat(viewCache.findAll(View.Base.class).orElseThrow()).isSameAs(before);
+
+		Song song = anySong();
+		song.setAlbum("Publicado");
+		songService.edit(song);
+		assertThat(new String(viewCache.findAll(View.Base.class).orElseThrow(), StandardCharsets.UTF_8)).contains("Publicado");
+	}
+
+	@Test
+	void concurrentMissesBuildOnce() throws Exception {
+		Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		viewCache.invalidate();
+		statistics.clear();
+		viewCache.findAll(View.Base.class).orElseThrow();
+		long oneBuild = statistics.getPrepareStatementCount();
+
+		int threads = 8;
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		try {
+			viewCache.invalidate();
+			statistics.clear();
+			CountDownLatch start = new CountDownLatch(1);
+			List<Future<byte[]>> results = new ArrayList<>();
+			for (int i = 0; i < threads; i++)
+				results.add(executor.submit(() -> {
+					start.await();
+					return viewCache.findAll(View.Base.class).orElseThrow();
+				}));
+			start.countDown();
+			for (Future<byte[]> result : results)
+				assertThat(result.get()).isNotEmpty();
+		} finally {
+			executor.shutdown();
+		}
+
+		assertThat(statistics.getPrepareStatementCount()).isEqualTo(oneBuild);
+	}
+
+	@Test
+	void endpointStreamsTheView() throws Exception {
+		MvcResult result = mvc.perform(get("/song/jsonview"))
+				.andExpect(request().asyncStarted())
+				.andReturn();
+
+		mvc.perform(asyncDispatch(result))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$[0].title").exists());
+	}
+
+	@Test
+	void viewsOverTheLimitAreStreamedInsteadOfCached() throws Exception {
+		SongViewCache bounded = new SongViewCache(objectMapper, songRepository, transactionManager,
+				true, DataSize.ofBytes(64));
+		assertThat(bounded.findAll(View.Base.class)).isEmpty();
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		bounded.writeAll(View.Base.class, out);
+		assertThat(out.toByteArray()).isEqualTo(viewCache.findAll(View.Base.class).orElseThrow());
+	}
+
+	@Test
+	void viewIsReadWithoutTheArtist() {
+		Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		viewCache.invalidate();
+		statistics.clear();
+
+		viewCache.findAll(View.Base.class).orElseThrow();
+
+		assertThat(statistics.getEntityLoadCount()).isZero();
+		assertThat(statistics.getQueries()).singleElement().asString().doesNotContain("artist");
+	}
+}
@@ -0,0 +1,87 @@
+package com.salesianostriana.dam.trianafy;
+
+import com.salesianostriana.dam.trianafy.dto.SuggestionDto;
+import com.salesianostriana.dam.trianafy.model.Artist;
+import com.salesianostriana.dam.trianafy.service.ArtistService;
+import com.salesianostriana.dam.trianafy.service.SuggestService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class SuggestServiceTests {
+
+	@Autowired
+	private SuggestService suggestService;
+
+	@Autowired
+	private ArtistService artistService;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	@Test
+	void rolledBackWriteLeavesNoSuggestion() {
+		transactionTemplate.executeWithoutResult(status -> {
+			artistService.add(Artist.builder().name("Fantasmagórico").build());
+			assertThat(suggestService.suggest("fantasmag", 10)).isEmpty();
+			status.setRollbackOnly();
+		});
+
+		assertThat(suggestService.suggest("fantasmag", 10)).isEmpty();
+	}
+
+	@Test
+	void committedWriteIsSuggestedAfterCommit() {
+		Artist artist = transactionTemplate.execute(status -> {
+			Artist saved = artistService.add(Artist.builder().name("Comprometido").build());
+			assertThat(suggestService.suggest("compromet", 10)).isEmpty();
+			return saved;
+		});
+
+		assertThat(suggestService.suggest("compromet", 10))
+				.containsExactly(new SuggestionDto(SuggestService.ARTIST, artist.getId(), "Comprometido"));
+	}
+
+	@Test
+	void bestMatchesComeFirst() {
+		artistService.add(Artist.builder().name("Los Quetzal").build());
+		artistService.add(Artist.builder().name("Quetzalcóatl y su Banda").build());
+		artistService.add(Artist.builder().name("Quetzal").build());
+
+		assertThat(suggestService.suggest("quetzal", 2))
+				.extracting(SuggestionDto::getText)
+				.containsExactly("Quetzal", "Quetzalcóatl y su Banda");
+	}
+
+	@Test
+	void prefixesLongerThanTheIndexAreMatchedOnTheText() {
+		artistService.add(Artist.builder().name("Tlaxcaltecas del Norte").build());
+		artistService.add(Artist.builder().name("Tlaxcaltequitas").build());
+
+		assertThat(suggestService.suggest("tlaxcaltecas d", 10))
+				.extracting(SuggestionDto::getText)
+				.containsExactly("Tlaxcaltecas del Norte");
+		assertThat(suggestService.suggest("tlaxcalteq", 10))
+				.extracting(SuggestionDto::getText)
+				.containsExactly("Tlaxcaltequitas");
+		assertThat(suggestService.suggest("del nor", 10))
+				.extracting(SuggestionDto::getText)
+				.containsExactly("Tlaxcaltecas del Norte");
+	}
+
+	@Test
+	void renamedTextsDropTheirOldPrefixes() {
+		Artist artist = artistService.add(Artist.builder().name("Zumbador Antiguo").build());
+		artist.setName("Zumbador Nuevo");
+		artistService.edit(artist);
+
+		assertThat(suggestService.suggest("antig", 10)).isEmpty();
+		assertThat(suggestService.suggest("zumbador", 10))
+				.extracting(SuggestionDto::getText)
+				.containsExactly("Zumbador Nuevo");
+	}
+}
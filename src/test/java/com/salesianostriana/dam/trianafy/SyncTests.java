@@ -0,0 +1,85 @@
+package com.salesianostriana.dam.trianafy;
+
+import com.jayway.jsonpath.JsonPath;
+import com.salesianostriana.dam.trianafy.model.Playlist;
+import com.salesianostriana.dam.trianafy.model.Song;
+import com.salesianostriana.dam.trianafy.repos.SongRepository;
+import com.salesianostriana.dam.trianafy.service.PlaylistService;
+import com.salesianostriana.dam.trianafy.service.SongService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.hamcrest.Matchers.hasSize;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class SyncTests {
+
+	@Autowired
+	private MockMvc mvc;
+
+	@Autowired
+	private SongService songService;
+
+	@Autowired
+	private PlaylistService playlistService;
+
+	@Autowired
+	private SongRepository songRepository;
+
+	private long watermark() throws Exception {
+		String body = mvc.perform(get("/sync"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.songs").isEmpty())
+				.andReturn().getResponse().getContentAsString();
+		return ((Number) JsonPath.read(body, "$.next")).longValue();
+	}
+
+	@Test
+	void onlyChangedRowsAndTombstonesAreReturned() throws Exception {
+		long since = watermark();
+
+		Song song = songService.findById(songRepository.findAll().get(0).getId()).orElseThrow();
+		song.setTitle("Retitulada");
+		songService.edit(song);
+		songService.edit(songService.findById(song.getId()).orElseThrow());
+
+		Playlist playlist = playlistService.add(new Playlist("Temporal", "Se borra enseguida"));
+		playlistService.appendSong(playlist.getId(), song.getId());
+		playlistService.deleteById(playlist.getId());
+
+		mvc.perform(get("/sync").param("since", String.valueOf(since)))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.songs", hasSize(1)))
+				.andExpect(jsonPath("$.songs[0].id").value(song.getId()))
+				.andExpect(jsonPath("$.songs[0].title").value("Retitulada"))
+				.andExpect(jsonPath("$.songs[0].lastModified").exists())
+				.andExpect(jsonPath("$.playlists").isEmpty())
+				.andExpect(jsonPath("$.deleted", hasSize(1)))
+				.andExpect(jsonPath("$.deleted[0].type").value("PLAYLIST"))
+				.andExpect(jsonPath("$.deleted[0].id").value(playlist.getId()))
+				.andExpect(jsonPath("$.hasMore").value(false));
+	}
+
+	@Test
+	void pagesFollowTheWatermark() throws Exception {
+		long since = watermark();
+		Playlist first = playlistService.add(new Playlist("Primera", ""));
+		Playlist second = playlistService.add(new Playlist("Segunda", ""));
+
+		String body = mvc.perform(get("/sync").param("since", String.valueOf(since)).param("size", "1"))
+				.andExpect(jsonPath("$.playlists[0].id").value(first.getId()))
+				.andExpect(jsonPath("$.hasMore").value(true))
+				.andReturn().getResponse().getContentAsString();
+		long next = ((Number) JsonPath.read(body, "$.next")).longValue();
+
+		mvc.perform(get("/sync").param("since", String.valueOf(next)).param("size", "1"))
+				.andExpect(jsonPath("$.playlists[0].id").value(second.getId()));
+	}
+}
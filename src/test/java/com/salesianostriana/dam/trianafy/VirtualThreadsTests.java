@@ -0,0 +1,123 @@
+package com.salesianostriana.dam.trianafy;
+
+import com.salesianostriana.dam.trianafy.config.ConnectionPoolLimitFilter;
+import com.salesianostriana.dam.trianafy.config.VirtualThreadsConfig;
+import com.salesianostriana.dam.trianafy.monitoring.DataSourceProxyPostProcessor;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.boot.test.context.runner.WebApplicationContextRunner;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class VirtualThreadsTests {
+
+	private final ConnectionPoolLimitFilter filter = new ConnectionPoolLimitFilter(null, 1, Duration.ZERO);
+
+	private MockHttpServletResponse send(MockHttpServletRequest request, boolean async) throws Exception {
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		request.setAsyncSupported(true);
+		filter.doFilter(request, response, new MockFilterChain(new HttpServlet() {
+			@Override
+			protected void service(HttpServletRequest req, HttpServletResponse res) {
+				if (async)
+					req.startAsync();
+			}
+		}));
+		return response;
+	}
+
+	@Test
+	void excessRequestsGetServiceUnavailable() throws Exception {
+		MockHttpServletRequest first = new MockHttpServletRequest("GET", "/song/stream");
+		send(first, true);
+
+		MockHttpServletResponse rejected = send(new MockHttpServletRequest("GET", "/artist/"), false);
+		assertThat(rejected.getStatus()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE.value());
+		assertThat(rejected.getHeader("Retry-After")).isEqualTo("1");
+
+		// Actuator stays reachable while the application is saturated.
+		assertThat(send(new MockHttpServletRequest("GET", "/actuator/health"), false).getStatus())
+				.isEqualTo(HttpStatus.OK.value());
+	}
+
+	@Test
+	void asyncRequestsKeepTheirPermitUntilCompleted() throws Exception {
+		MockHttpServletRequest stream = new MockHttpServletRequest("GET", "/song/stream");
+		send(stream, true);
+		assertThat(send(new MockHttpServletRequest("GET", "/artist/"), false).getStatus())
+				.isEqualTo(HttpStatus.SERVICE_UNAVAILABLE.value());
+
+		stream.getAsyncContext().complete();
+
+		assertThat(send(new MockHttpServletRequest("GET", "/artist/"), false).getStatus())
+				.isEqualTo(HttpStatus.OK.value());
+		assertThat(send(new MockHttpServletRequest("GET", "/artist/"), false).getStatus())
+				.isEqualTo(HttpStatus.OK.value());
+	}
+
+	@Test
+	void longPollsDoNotTakePermits() throws Exception {
+		ConnectionPoolLimitFilter poolSized = new ConnectionPoolLimitFilter(null, 10, Duration.ZERO);
+		for (int i = 0; i < 12; i++) {
+			MockHttpServletRequest poll = new MockHttpServletRequest("GET", "/changes");
+			poll.setAsyncSupported(true);
+			poolSized.doFilter(poll, new MockHttpServletResponse(), new MockFilterChain(new HttpServlet() {
+				@Override
+				protected void service(HttpServletRequest req, HttpServletResponse res) {
+					req.startAsync();
+				}
+			}));
+			assertThat(poll.isAsyncStarted()).isTrue();
+		}
+
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		poolSized.doFilter(new MockHttpServletRequest("GET", "/artist/"), response, new MockFilterChain());
+		assertThat(response.getStatus()).isEqualTo(HttpStatus.OK.value());
+	}
+
+	@Test
+	void virtualThreadsAreOptIn() {
+		new WebApplicationContextRunner()
+				.withUserConfiguration(VirtualThreadsConfig.class)
+				.run(context -> assertThat(context).doesNotHaveBean(VirtualThreadsConfig.class));
+	}
+
+	@Test
+	void virtualThreadsNeedJava21() {
+		new WebApplicationContextRunner()
+				.withUserConfiguration(VirtualThreadsConfig.class)
+				.withPropertyValues("trianafy.virtual-threads.enabled=true")
+				.run(context -> {
+					if (Runtime.version().feature() >= 21) {
+						assertThat(context).hasSingleBean(VirtualThreadsConfig.class);
+					} else {
+						assertThat(context).hasFailed();
+						assertThat(context.getStartupFailure()).hasRootCauseInstanceOf(NoSuchMethodException.class);
+						assertThat(context.getStartupFailure()).hasStackTraceContaining("requires Java 21");
+					}
+				});
+	}
+
+	@Test
+	void dataSourcesAreProxiedOnce() {
+		DataSourceProxyPostProcessor postProcessor = new DataSourceProxyPostProcessor(
+				new StaticListableBeanFactory().getBeanProvider(QueryExecutionListener.class));
+
+		Object proxied = postProcessor.postProcessAfterInitialization(new JdbcDataSource(), "dataSource");
+
+		assertThat(proxied).isInstanceOf(ProxyDataSource.class);
+		assertThat(postProcessor.postProcessAfterInitialization(proxied, "dataSource")).isSameAs(proxied);
+	}
+}